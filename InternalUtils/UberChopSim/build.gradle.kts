@@ -0,0 +1,28 @@
+plugins {
+    kotlin("jvm")
+    application
+}
+
+group = "com.uberith.internalutils.uberchopsim"
+version = "1.0.0-SNAPSHOT"
+
+// UberChop and script-api are compiled from source against the client fakes in this module,
+// so the real states run without any BotWithUs artifacts on the classpath.
+kotlin {
+    jvmToolchain(24)
+    sourceSets["main"].kotlin.srcDirs(
+        "../../script-api/src/main/kotlin",
+        "../../SkillingScripts/UberChop/src/main/kotlin"
+    )
+}
+
+dependencies {
+    implementation("org.slf4j:slf4j-api:2.0.9")
+    runtimeOnly("org.slf4j:slf4j-nop:2.0.9")
+    implementation("com.google.code.gson:gson:2.10.1")
+    implementation("org.jetbrains.kotlinx:kotlinx-coroutines-core-jvm:1.7.1")
+}
+
+application {
+    mainClass.set("com.uberith.uberchopsim.UberChopSimulation")
+}
@@ -0,0 +1,28 @@
+package botwithus.navigation.api;
+
+import com.uberith.uberchopsim.SimClient;
+import net.botwithus.rs3.world.Coordinate;
+
+/**
+ * Simulation stand-in: every destination on the player's plane is reachable in a straight line.
+ * {@link #process()} sets the walk destination and the world moves the player on its own ticks.
+ */
+public class NavPath {
+    private final Coordinate destination;
+
+    private NavPath(Coordinate destination) {
+        this.destination = destination;
+    }
+
+    public static NavPath resolve(Coordinate destination) {
+        return destination == null ? null : new NavPath(destination);
+    }
+
+    public void process() {
+        SimClient.world().walkTo(destination);
+    }
+
+    public State state() {
+        return SimClient.world().pathState(destination);
+    }
+}
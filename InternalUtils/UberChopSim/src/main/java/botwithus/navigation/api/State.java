@@ -0,0 +1,10 @@
+package botwithus.navigation.api;
+
+/** Simulation stand-in for the path states. */
+public enum State {
+    CONTINUE,
+    NO_PATH,
+    FAILED,
+    FINISHED,
+    IDLE
+}
@@ -0,0 +1,13 @@
+package net.botwithus.events;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Simulation stand-in; the harness wires event handlers directly instead of scanning for this. */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface EventInfo {
+    Class<?> type();
+}
@@ -0,0 +1,33 @@
+package net.botwithus.imgui;
+
+/** Simulation stand-in; every widget is inert and returns its input. */
+public class ImGui {
+    public static boolean begin(String s, int f){return true;}
+    public static void end(){}
+    public static boolean beginChild(String s, float w, float h, boolean b, int f){return true;}
+    public static void endChild(){}
+    public static boolean beginCombo(String s, String p, int f){return true;}
+    public static void endCombo(){}
+    public static void beginDisabled(boolean b){}
+    public static void endDisabled(){}
+    public static boolean beginTabBar(String s, int f){return true;}
+    public static void endTabBar(){}
+    public static boolean beginTabItem(String s, int f){return true;}
+    public static void endTabItem(){}
+    public static boolean button(String s, float w, float h){return false;}
+    public static boolean smallButton(String s){return false;}
+    public static boolean checkbox(String s, boolean v){return v;}
+    public static int inputInt(String s, int v, int a, int b, int f){return v;}
+    public static String inputText(String s, String v, int f){return v;}
+    public static void newLine(){}
+    public static void popStyleColor(int n){}
+    public static void pushStyleColor(int i, float r, float g, float b, float a){}
+    public static void sameLine(float a, float b){}
+    public static boolean selectable(String s, boolean sel, int f, float w, float h){return false;}
+    public static void separator(){}
+    public static void spacing(){}
+    public static void setNextWindowBgAlpha(float a){}
+    public static void setNextWindowSize(float w, float h){}
+    public static void text(String s, Object... args){}
+    public static Object loadTexture(byte[] b){return null;}
+}
@@ -0,0 +1,28 @@
+package net.botwithus.rs3.entities;
+
+import com.uberith.uberchopsim.SimClient;
+import net.botwithus.rs3.world.Coordinate;
+
+/** Simulation stand-in backed by the player of the installed simulated world. */
+public class LocalPlayer {
+    private static final LocalPlayer SELF = new LocalPlayer();
+
+    private LocalPlayer() {
+    }
+
+    public static LocalPlayer self() {
+        return SimClient.installed() ? SELF : null;
+    }
+
+    public Coordinate getCoordinate() {
+        return SimClient.world().getPlayer();
+    }
+
+    public int getAnimationId() {
+        return SimClient.world().getAnimationId();
+    }
+
+    public boolean isMoving() {
+        return SimClient.world().isMoving();
+    }
+}
@@ -0,0 +1,39 @@
+package net.botwithus.rs3.entities;
+
+import java.util.function.Predicate;
+import net.botwithus.rs3.world.Coordinate;
+
+/** Simulation stand-in; interactions are handed to the simulated world. */
+public class SceneObject {
+    private final int id;
+    private final String name;
+    private final Coordinate coordinate;
+    private final Predicate<String> interaction;
+
+    public SceneObject(int id, String name, Coordinate coordinate, Predicate<String> interaction) {
+        this.id = id;
+        this.name = name;
+        this.coordinate = coordinate;
+        this.interaction = interaction;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Coordinate getCoordinate() {
+        return coordinate;
+    }
+
+    public boolean interact(String option) {
+        return interaction.test(option);
+    }
+
+    public boolean isHidden() {
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package net.botwithus.rs3.inventories;
+
+/** Simulation stand-in; only the inventory id is modelled. */
+public class Inventory {
+    private final int id;
+
+    public Inventory(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,29 @@
+package net.botwithus.rs3.inventories.events;
+
+import net.botwithus.rs3.inventories.Inventory;
+import net.botwithus.rs3.item.InventoryItem;
+
+/** Simulation stand-in for a single slot change. */
+public class InventoryEvent {
+    private final Inventory inventory;
+    private final InventoryItem oldItem;
+    private final InventoryItem newItem;
+
+    public InventoryEvent(Inventory inventory, InventoryItem oldItem, InventoryItem newItem) {
+        this.inventory = inventory;
+        this.oldItem = oldItem;
+        this.newItem = newItem;
+    }
+
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public InventoryItem oldItem() {
+        return oldItem;
+    }
+
+    public InventoryItem newItem() {
+        return newItem;
+    }
+}
@@ -0,0 +1,34 @@
+package net.botwithus.rs3.item;
+
+import net.botwithus.rs3.world.Coordinate;
+
+/** Simulation stand-in for one item lying on a tile. */
+public class GroundItem {
+    private final int id;
+    private final String name;
+    private final int quantity;
+    private final Coordinate coordinate;
+
+    public GroundItem(int id, String name, int quantity, Coordinate coordinate) {
+        this.id = id;
+        this.name = name;
+        this.quantity = quantity;
+        this.coordinate = coordinate;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Coordinate getCoordinate() {
+        return coordinate;
+    }
+}
@@ -0,0 +1,23 @@
+package net.botwithus.rs3.item;
+
+import java.util.List;
+import net.botwithus.rs3.world.Coordinate;
+
+/** Simulation stand-in for the items on one tile. */
+public class GroundItemStack {
+    private final List<GroundItem> items;
+    private final Coordinate coordinate;
+
+    public GroundItemStack(List<GroundItem> items, Coordinate coordinate) {
+        this.items = items;
+        this.coordinate = coordinate;
+    }
+
+    public List<GroundItem> getItems() {
+        return items;
+    }
+
+    public Coordinate getCoordinate() {
+        return coordinate;
+    }
+}
@@ -0,0 +1,32 @@
+package net.botwithus.rs3.item;
+
+/** Simulation stand-in; an empty slot has id -1. */
+public class InventoryItem {
+    private final int id;
+    private final String name;
+    private final int quantity;
+    private final int slot;
+
+    public InventoryItem(int id, String name, int quantity, int slot) {
+        this.id = id;
+        this.name = name;
+        this.quantity = quantity;
+        this.slot = slot;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+}
@@ -0,0 +1,21 @@
+package net.botwithus.rs3.stats;
+
+import com.uberith.uberchopsim.SimClient;
+
+/** Simulation stand-in; only the skills UberChop reads are modelled. */
+public enum Stats {
+    WOODCUTTING,
+    FLETCHING;
+
+    public int getCurrentLevel() {
+        return getLevel();
+    }
+
+    public int getLevel() {
+        return SimClient.world().level(this);
+    }
+
+    public int getXp() {
+        return SimClient.world().xp(this);
+    }
+}
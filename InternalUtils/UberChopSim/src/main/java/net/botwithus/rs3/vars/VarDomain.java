@@ -0,0 +1,11 @@
+package net.botwithus.rs3.vars;
+
+import com.uberith.uberchopsim.SimClient;
+
+/** Simulation stand-in backed by the installed simulated world. */
+public class VarDomain {
+
+    public static int getVarBitValue(int id) {
+        return SimClient.world().varbit(id);
+    }
+}
@@ -0,0 +1,10 @@
+package net.botwithus.rs3.world;
+
+/** Simulation stand-in; the simulated client is always in game. */
+public enum ClientState {
+    GAME;
+
+    public int getId() {
+        return 0;
+    }
+}
@@ -0,0 +1,10 @@
+package net.botwithus.rs3.world;
+
+/** Simulation stand-in for a world tile. */
+public record Coordinate(int x, int y, int z) {
+
+    /** 64x64 map region, packed the way the client does it. */
+    public int getRegionId() {
+        return ((x >> 6) << 8) | (y >> 6);
+    }
+}
@@ -0,0 +1,18 @@
+package net.botwithus.rs3.world;
+
+import com.uberith.uberchopsim.SimClient;
+import java.util.List;
+import net.botwithus.rs3.entities.SceneObject;
+import net.botwithus.rs3.item.GroundItemStack;
+
+/** Simulation stand-in backed by the installed simulated world. */
+public class World {
+
+    public static List<GroundItemStack> getGroundItems() {
+        return SimClient.world().groundItems();
+    }
+
+    public static List<SceneObject> getSceneObjects() {
+        return SimClient.world().sceneObjects();
+    }
+}
@@ -0,0 +1,19 @@
+package net.botwithus.scripts;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Simulation stand-in for the script manifest annotation. */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Info {
+    String name();
+
+    String description();
+
+    String version();
+
+    String author();
+}
@@ -0,0 +1,5 @@
+package net.botwithus.ui.workspace;
+
+/** Simulation stand-in; the harness never renders UI. */
+public class Workspace {
+}
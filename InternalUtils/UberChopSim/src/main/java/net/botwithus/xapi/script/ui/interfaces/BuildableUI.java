@@ -0,0 +1,6 @@
+package net.botwithus.xapi.script.ui.interfaces;
+
+/** Simulation stand-in; the harness never renders UI. */
+public interface BuildableUI {
+    void buildUI();
+}
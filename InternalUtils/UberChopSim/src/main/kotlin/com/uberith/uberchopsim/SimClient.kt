@@ -0,0 +1,22 @@
+package com.uberith.uberchopsim
+
+import com.uberith.api.utils.ScriptClock
+
+/** The simulated world the client fakes read from; one per process. */
+object SimClient {
+
+    @Volatile private var current: SimWorld? = null
+
+    /** Makes [world] the client and points [ScriptClock] at its tick counter. */
+    @JvmStatic
+    fun install(world: SimWorld) {
+        current = world
+        ScriptClock.source = { world.nowMs }
+    }
+
+    @JvmStatic
+    fun installed(): Boolean = current != null
+
+    @JvmStatic
+    fun world(): SimWorld = current ?: error("no simulated world installed")
+}
@@ -0,0 +1,39 @@
+package com.uberith.uberchopsim
+
+import net.botwithus.rs3.world.Coordinate
+
+/**
+ * Knobs for one simulated spot. The defaults model the Ithell elder trees in Prifddinas with the
+ * bank chest south of them; rates are round numbers for repeatable comparisons, not measured game
+ * rates.
+ */
+data class SimConfig(
+    val seed: Long = 1L,
+    val location: String = "Prifddinas Ithell Elders",
+    val treeName: String = "Elder",
+    val logName: String = "Elder logs",
+    val chopTile: Coordinate = Coordinate(2228, 3389, 0),
+    val bankTile: Coordinate = Coordinate(2235, 3370, 0),
+    val startTile: Coordinate = Coordinate(2235, 3371, 0),
+    val treeOffsets: List<Pair<Int, Int>> = listOf(-3 to 2, 2 to 3, 3 to -2, -2 to -3),
+    val treeObjectId: Int = 87_508,
+    val chopOptions: Set<String> = setOf("Chop down", "Chop"),
+    /** Chance per swing tick of receiving a log. */
+    val logChance: Double = 0.25,
+    /** Chance per log that the tree falls. */
+    val depleteChance: Double = 0.08,
+    val respawnTicks: IntRange = 80..120,
+    val nestChance: Double = 0.01,
+    val logXp: Int = 325,
+    val level: Int = 99,
+    val startingWoodcuttingXp: Int = 14_000_000,
+    val fletchTicksPerItem: Int = 2,
+    val fletchXp: Int = 100,
+    val woodBoxCapacity: Int = 70,
+    val jujuDurationTicks: Int = 600,
+    val startingBackpack: List<String> = emptyList(),
+    val bankItems: Map<String, Int> = mapOf(
+        "Perfect juju woodcutting potion (4)" to 20,
+        "Elder wood box" to 1
+    )
+)
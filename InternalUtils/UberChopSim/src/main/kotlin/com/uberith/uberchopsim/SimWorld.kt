@@ -0,0 +1,513 @@
+package com.uberith.uberchopsim
+
+import botwithus.navigation.api.State as NavState
+import net.botwithus.kxapi.game.scene.groundItem.PickupMessages
+import net.botwithus.rs3.entities.SceneObject
+import net.botwithus.rs3.inventories.Inventory
+import net.botwithus.rs3.inventories.events.InventoryEvent
+import net.botwithus.rs3.item.GroundItem
+import net.botwithus.rs3.item.GroundItemStack
+import net.botwithus.rs3.item.InventoryItem
+import net.botwithus.rs3.stats.Stats
+import net.botwithus.rs3.world.Coordinate
+import java.util.regex.Pattern
+import kotlin.math.abs
+import kotlin.math.max
+import kotlin.math.sign
+import kotlin.random.Random
+
+/**
+ * Deterministic model of one chopping spot and its bank, advanced in 600 ms game ticks.
+ *
+ * Everything random comes from one seeded [Random], and the script only sees the world through
+ * the client fakes in this module, so a run is repeatable for a given [SimConfig]. The model is
+ * deliberately coarse: walking is a straight line at run speed, every swing has the same log
+ * chance, interactions that need a short walk in the client (bank, pickup) succeed in place, and
+ * fletched products stack in one slot.
+ */
+class SimWorld(val config: SimConfig) {
+
+    companion object {
+        const val TICK_MS = 600L
+        const val BACKPACK_INVENTORY_ID = 93
+        const val BANK_INVENTORY_ID = 95
+        const val BACKPACK_SLOTS = 28
+        const val CHOP_ANIMATION = 867
+        const val FLETCH_ANIMATION = 1248
+        const val RUN_TILES_PER_TICK = 2
+        const val BANK_REACH = 5
+        // 2026-01-01T00:00:00Z; a fixed start keeps date-derived state identical between runs.
+        const val EPOCH_MS = 1_767_225_600_000L
+        private const val NEST_NAME = "Bird's nest"
+        private const val JUJU_VIAL_NAME = "Juju vial"
+        private val JUJU_VARBITS = intArrayOf(4394, 4395, 4396)
+        private val JUJU_DOSE = Regex("(?i).*juju woodcutting potion \\((\\d)\\)")
+        private val LOG_NAME = Regex("(?i).*logs.*")
+    }
+
+    private class Tree(val tile: Coordinate) {
+        var standing = true
+        var respawnAt = 0L
+        lateinit var sceneObject: SceneObject
+    }
+
+    data class Counters(
+        val logsCut: Long,
+        val logsBanked: Long,
+        val nestsDropped: Long,
+        val nestsPickedUp: Long,
+        val itemsFletched: Long,
+        val bankOpens: Long,
+        val bankActions: Long,
+        val depletions: Long,
+        val tilesWalked: Long
+    )
+
+    private val random = Random(config.seed)
+    private val backpack = Inventory(BACKPACK_INVENTORY_ID)
+    private val slots = arrayOfNulls<InventoryItem>(BACKPACK_SLOTS)
+    private val itemIds = HashMap<String, Int>()
+    private val bank = LinkedHashMap<String, Int>(config.bankItems)
+    private val bankInventory = Inventory(BANK_INVENTORY_ID)
+    private var bankSent = false
+    private val ground = ArrayList<GroundItemStack>()
+    private val trees: List<Tree>
+    private var woodcuttingXp = config.startingWoodcuttingXp
+    private var fletchingXp = 0
+    private var walkDestination: Coordinate? = null
+    private var choppingTree: Tree? = null
+    private var fletchMaterial: String? = null
+    private var fletchProduct: String? = null
+    private var fletchProgress = 0
+    private var jujuExpiresAtTick = 0L
+    private var woodBoxLogs = 0
+
+    private var logsCut = 0L
+    private var logsBanked = 0L
+    private var nestsDropped = 0L
+    private var nestsPickedUp = 0L
+    private var itemsFletched = 0L
+    private var bankOpens = 0L
+    private var bankActions = 0L
+    private var depletions = 0L
+    private var tilesWalked = 0L
+
+    /** Receives every backpack and bank slot change, as the client's event bus would. */
+    var inventoryListener: ((InventoryEvent) -> Unit)? = null
+
+    var tick: Long = 0L
+        private set
+    var player: Coordinate = config.startTile
+        private set
+    var animationId: Int = -1
+        private set
+    var isMoving: Boolean = false
+        private set
+    var bankOpen: Boolean = false
+        private set
+
+    /** Wall time spent inside [advance]; the harness subtracts it from script tick latency. */
+    var advanceNanos: Long = 0L
+        private set
+
+    val nowMs: Long
+        get() = EPOCH_MS + tick * TICK_MS
+
+    init {
+        trees = config.treeOffsets.map { (dx, dy) ->
+            Tree(Coordinate(config.chopTile.x + dx, config.chopTile.y + dy, config.chopTile.z))
+        }
+        trees.forEachIndexed { index, tree ->
+            tree.sceneObject = SceneObject(config.treeObjectId + index, config.treeName, tree.tile) { option ->
+                option in config.chopOptions && startChopping(tree)
+            }
+        }
+        config.startingBackpack.forEach { addItem(it) }
+    }
+
+    fun counters(): Counters =
+        Counters(logsCut, logsBanked, nestsDropped, nestsPickedUp, itemsFletched, bankOpens, bankActions, depletions, tilesWalked)
+
+    fun advance(ticks: Int) {
+        val started = System.nanoTime()
+        repeat(ticks) { step() }
+        advanceNanos += System.nanoTime() - started
+    }
+
+    private fun step() {
+        tick++
+        isMoving = false
+        for (tree in trees) {
+            if (!tree.standing && tick >= tree.respawnAt) {
+                tree.standing = true
+            }
+        }
+        walk()
+        chop()
+        fletch()
+    }
+
+    // ---- player -------------------------------------------------------------------------------
+
+    fun walkTo(destination: Coordinate) {
+        if (destination.z != player.z) {
+            return
+        }
+        walkDestination = destination
+        choppingTree = null
+        stopFletching()
+        animationId = -1
+    }
+
+    fun pathState(destination: Coordinate): NavState = when {
+        destination.z != player.z -> NavState.NO_PATH
+        chebyshev(player, destination) <= 1 -> NavState.FINISHED
+        else -> NavState.CONTINUE
+    }
+
+    private fun walk() {
+        val destination = walkDestination ?: return
+        var x = player.x
+        var y = player.y
+        repeat(RUN_TILES_PER_TICK) {
+            if (x != destination.x || y != destination.y) {
+                x += (destination.x - x).sign
+                y += (destination.y - y).sign
+                tilesWalked++
+            }
+        }
+        if (x != player.x || y != player.y) {
+            player = Coordinate(x, y, player.z)
+            isMoving = true
+            bankOpen = false
+        }
+        if (player.x == destination.x && player.y == destination.y) {
+            walkDestination = null
+        }
+    }
+
+    // ---- trees --------------------------------------------------------------------------------
+
+    fun sceneObjects(): List<SceneObject> = trees.filter { it.standing }.map { it.sceneObject }
+
+    fun chopNearest(name: String): Boolean {
+        val tree = trees
+            .filter { it.standing && config.treeName.equals(name, ignoreCase = true) }
+            .minByOrNull { chebyshev(player, it.tile) }
+            ?: return false
+        return startChopping(tree)
+    }
+
+    private fun startChopping(tree: Tree): Boolean {
+        if (!tree.standing) {
+            return false
+        }
+        stopFletching()
+        choppingTree = tree
+        walkDestination = if (chebyshev(player, tree.tile) <= 1) {
+            null
+        } else {
+            // Stand on the side of the tree that faces the player.
+            Coordinate(
+                tree.tile.x + (player.x - tree.tile.x).sign,
+                tree.tile.y + (player.y - tree.tile.y).sign,
+                tree.tile.z
+            )
+        }
+        return true
+    }
+
+    private fun chop() {
+        val tree = choppingTree ?: return
+        if (!tree.standing || backpackFull()) {
+            choppingTree = null
+            animationId = -1
+            return
+        }
+        if (chebyshev(player, tree.tile) > 1) {
+            animationId = -1
+            if (walkDestination == null) {
+                choppingTree = null
+            }
+            return
+        }
+        animationId = CHOP_ANIMATION
+        if (random.nextDouble() >= config.logChance) {
+            return
+        }
+        addItem(config.logName)
+        woodcuttingXp += config.logXp
+        logsCut++
+        if (random.nextDouble() < config.nestChance) {
+            val tile = Coordinate(player.x + random.nextInt(-1, 2), player.y + random.nextInt(-1, 2), player.z)
+            ground += GroundItemStack(listOf(GroundItem(itemId(NEST_NAME), NEST_NAME, 1, tile)), tile)
+            nestsDropped++
+        }
+        if (random.nextDouble() < config.depleteChance) {
+            tree.standing = false
+            tree.respawnAt = tick + random.nextInt(config.respawnTicks.first, config.respawnTicks.last + 1)
+            depletions++
+            choppingTree = null
+            animationId = -1
+        }
+    }
+
+    // ---- ground items -------------------------------------------------------------------------
+
+    fun groundItems(): List<GroundItemStack> = ArrayList(ground)
+
+    fun pickup(patterns: List<Regex>, distance: Int): PickupMessages {
+        val stack = ground
+            .filter { stack ->
+                chebyshev(player, stack.coordinate) <= distance &&
+                    stack.items.any { item -> patterns.any { it.matches(item.name) } }
+            }
+            .minByOrNull { chebyshev(player, it.coordinate) }
+            ?: return PickupMessages.NO_ITEMS_FOUND
+        if (backpackFull()) {
+            return PickupMessages.FULL_INVENTORY
+        }
+        ground.remove(stack)
+        stack.items.forEach { addItem(it.name, it.quantity) }
+        nestsPickedUp += stack.items.count { it.name == NEST_NAME }
+        return PickupMessages.SUCCESS
+    }
+
+    // ---- backpack -----------------------------------------------------------------------------
+
+    fun backpackItems(): List<InventoryItem> = slots.filterNotNull()
+
+    fun backpackFull(): Boolean = slots.all { it != null }
+
+    fun backpackContains(pattern: Pattern): Boolean =
+        slots.any { it != null && pattern.matcher(it.name).matches() }
+
+    fun backpackCount(name: String): Int =
+        slots.sumOf { if (it != null && it.name.equals(name, ignoreCase = true)) it.quantity else 0 }
+
+    fun interactItem(item: InventoryItem, option: String): Boolean {
+        val held = slots.getOrNull(item.slot)
+        if (held == null || held.id != item.id) {
+            return false
+        }
+        return when {
+            option == "Deposit-All" -> bankOpen && bankAction() && depositMatching { it.id == held.id }
+            option == "Deposit" || option == "Deposit-1" -> bankOpen && bankAction() && depositSlot(item.slot)
+            option == "Drink" || option == "Sip" -> drinkJuju(item.slot)
+            option == "Fill" -> fillWoodBox()
+            option.startsWith("Empty") -> bankOpen && emptyWoodBox()
+            else -> false
+        }
+    }
+
+    private fun addItem(name: String, quantity: Int = 1, stackable: Boolean = false): Boolean {
+        if (stackable) {
+            val existing = slots.indexOfFirst { it != null && it.name == name }
+            if (existing >= 0) {
+                setSlot(existing, InventoryItem(itemId(name), name, slots[existing]!!.quantity + quantity, existing))
+                return true
+            }
+        }
+        val free = slots.indexOfFirst { it == null }
+        if (free < 0) {
+            return false
+        }
+        setSlot(free, InventoryItem(itemId(name), name, quantity, free))
+        return true
+    }
+
+    private fun setSlot(slot: Int, item: InventoryItem?) {
+        val previous = slots[slot] ?: emptySlot(slot)
+        slots[slot] = item
+        inventoryListener?.invoke(InventoryEvent(backpack, previous, item ?: emptySlot(slot)))
+    }
+
+    private fun emptySlot(slot: Int) = InventoryItem(-1, "", 0, slot)
+
+    private fun itemId(name: String): Int = itemIds.getOrPut(name) { 1_000 + itemIds.size }
+
+    // ---- bank ---------------------------------------------------------------------------------
+
+    fun openBank(): Boolean {
+        if (chebyshev(player, config.bankTile) > BANK_REACH) {
+            return false
+        }
+        walkDestination = null
+        choppingTree = null
+        stopFletching()
+        animationId = -1
+        if (!bankOpen) {
+            bankOpen = true
+            bankOpens++
+        }
+        if (!bankSent) {
+            // The client receives the whole bank container the first time it is opened.
+            bankSent = true
+            bankItems().forEach { item -> inventoryListener?.invoke(InventoryEvent(bankInventory, emptySlot(item.slot), item)) }
+        }
+        return true
+    }
+
+    fun closeBank(): Boolean {
+        bankOpen = false
+        return true
+    }
+
+    fun depositAll(pattern: Pattern): Boolean = bankOpen && bankAction() && depositMatching { pattern.matcher(it.name).matches() }
+
+    fun depositBackpack(): Boolean = bankOpen && bankAction() && depositMatching { true }
+
+    // Every deposit or withdraw click while the bank is open, successful or not.
+    private fun bankAction(): Boolean {
+        bankActions++
+        return true
+    }
+
+    /** One slot per item name, in the order the bank first held it; empty stacks keep their slot. */
+    fun bankItems(): List<InventoryItem> =
+        bank.entries.mapIndexedNotNull { slot, (name, count) ->
+            if (count > 0) InventoryItem(itemId(name), name, count, slot) else null
+        }
+
+    private fun bankAdd(name: String, quantity: Int) {
+        val before = bank[name] ?: 0
+        bank[name] = before + quantity
+        if (!bankSent) {
+            return
+        }
+        val slot = bank.keys.indexOf(name)
+        val after = before + quantity
+        val previous = if (before > 0) InventoryItem(itemId(name), name, before, slot) else emptySlot(slot)
+        val current = if (after > 0) InventoryItem(itemId(name), name, after, slot) else emptySlot(slot)
+        inventoryListener?.invoke(InventoryEvent(bankInventory, previous, current))
+    }
+
+    fun bankContains(pattern: Pattern): Boolean =
+        bank.any { (name, count) -> count > 0 && pattern.matcher(name).matches() }
+
+    fun withdraw(pattern: Pattern, amount: Int): Boolean {
+        if (!bankOpen) {
+            return false
+        }
+        bankAction()
+        val name = bank.entries.firstOrNull { (name, count) -> count > 0 && pattern.matcher(name).matches() }?.key
+            ?: return false
+        var withdrawn = 0
+        while (withdrawn < amount && (bank[name] ?: 0) > 0 && addItem(name)) {
+            bankAdd(name, -1)
+            withdrawn++
+        }
+        return withdrawn > 0
+    }
+
+    private fun depositMatching(predicate: (InventoryItem) -> Boolean): Boolean {
+        var deposited = false
+        for (slot in slots.indices) {
+            val item = slots[slot] ?: continue
+            if (predicate(item)) {
+                deposited = depositSlot(slot) || deposited
+            }
+        }
+        return deposited
+    }
+
+    private fun depositSlot(slot: Int): Boolean {
+        val item = slots[slot] ?: return false
+        bankAdd(item.name, item.quantity)
+        if (LOG_NAME.matches(item.name)) {
+            logsBanked += item.quantity
+        }
+        setSlot(slot, null)
+        return true
+    }
+
+    // ---- wood box, juju, fletching ------------------------------------------------------------
+
+    private fun fillWoodBox(): Boolean {
+        var stored = false
+        for (slot in slots.indices) {
+            val item = slots[slot] ?: continue
+            if (woodBoxLogs >= config.woodBoxCapacity) {
+                break
+            }
+            if (LOG_NAME.matches(item.name)) {
+                woodBoxLogs += item.quantity
+                setSlot(slot, null)
+                stored = true
+            }
+        }
+        return stored
+    }
+
+    private fun emptyWoodBox(): Boolean {
+        if (woodBoxLogs == 0) {
+            return false
+        }
+        bankAdd(config.logName, woodBoxLogs)
+        logsBanked += woodBoxLogs
+        woodBoxLogs = 0
+        return true
+    }
+
+    private fun drinkJuju(slot: Int): Boolean {
+        val item = slots[slot] ?: return false
+        val dose = JUJU_DOSE.matchEntire(item.name)?.groupValues?.get(1)?.toInt() ?: return false
+        jujuExpiresAtTick = tick + config.jujuDurationTicks
+        val next = if (dose > 1) item.name.replace("($dose)", "(${dose - 1})") else JUJU_VIAL_NAME
+        setSlot(slot, InventoryItem(itemId(next), next, 1, slot))
+        return true
+    }
+
+    fun varbit(id: Int): Int = if (id in JUJU_VARBITS && tick < jujuExpiresAtTick) 1 else 0
+
+    fun level(stat: Stats): Int = config.level
+
+    fun xp(stat: Stats): Int = when (stat) {
+        Stats.WOODCUTTING -> woodcuttingXp
+        Stats.FLETCHING -> fletchingXp
+    }
+
+    fun startFletching(material: String, product: String): Boolean {
+        if (backpackCount(material) == 0) {
+            return false
+        }
+        choppingTree = null
+        walkDestination = null
+        fletchMaterial = material
+        fletchProduct = product
+        fletchProgress = 0
+        return true
+    }
+
+    private fun stopFletching() {
+        fletchMaterial = null
+        fletchProduct = null
+        if (animationId == FLETCH_ANIMATION) {
+            animationId = -1
+        }
+    }
+
+    private fun fletch() {
+        val material = fletchMaterial ?: return
+        val product = fletchProduct ?: return
+        animationId = FLETCH_ANIMATION
+        if (++fletchProgress % config.fletchTicksPerItem != 0) {
+            return
+        }
+        val slot = slots.indexOfFirst { it != null && it.name.equals(material, ignoreCase = true) }
+        if (slot < 0) {
+            stopFletching()
+            return
+        }
+        setSlot(slot, null)
+        addItem(product, stackable = true)
+        fletchingXp += config.fletchXp
+        itemsFletched++
+        if (backpackCount(material) == 0) {
+            stopFletching()
+        }
+    }
+
+    private fun chebyshev(a: Coordinate, b: Coordinate): Int =
+        if (a.z != b.z) Int.MAX_VALUE else max(abs(a.x - b.x), abs(a.y - b.y))
+}
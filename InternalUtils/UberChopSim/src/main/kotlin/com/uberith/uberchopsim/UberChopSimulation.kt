@@ -0,0 +1,237 @@
+package com.uberith.uberchopsim
+
+import com.uberith.api.utils.LatencyHistogram
+import com.uberith.uberchop.Equipment
+import com.uberith.uberchop.UberChop
+import com.uberith.uberchop.config.TreeTypes
+import java.nio.file.Files
+import java.util.Locale
+
+/**
+ * Runs the real UberChop script (Chopping, Banking and Fletching states included) against a
+ * [SimWorld] with no client attached.
+ *
+ * Each loop iteration is one client tick: the script's onPreTick plus one decision, then the
+ * world advances a tick. Delays inside leaves advance the world as well, exactly as they block
+ * the script in the client. Tick latency counts script time only; the world's own stepping is
+ * subtracted. The first [Options.warmupTicks] ticks are excluded from the latency and throughput
+ * figures so the JIT has settled.
+ *
+ * Usage: `UberChopSimulation [--ticks=N] [--warmup=N] [--seed=N] [--trees=N] [--fletch] [--nests]
+ * [--juju] [--woodbox] [--profile]`
+ */
+object UberChopSimulation {
+
+    private const val BANK_MODE = 0
+    private const val FLETCH_MODE = 2
+
+    private data class Options(
+        val ticks: Int = 100_000,
+        val warmupTicks: Int = 10_000,
+        val seed: Long = 1L,
+        /** Trees at the spot, taken from SimConfig's offsets; fewer trees mean longer respawn gaps. */
+        val trees: Int? = null,
+        val fletch: Boolean = false,
+        val nests: Boolean = false,
+        val juju: Boolean = false,
+        val woodBox: Boolean = false,
+        val profile: Boolean = false
+    )
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        val options = parse(args)
+        // The stats journal and profile export live under user.home; keep simulated runs out of the real ones.
+        System.setProperty("user.home", Files.createTempDirectory("uberchop-sim").toString())
+
+        val defaults = SimConfig(seed = options.seed)
+        val config = options.trees?.let { defaults.copy(treeOffsets = defaults.treeOffsets.take(it)) } ?: defaults
+        val world = SimWorld(config)
+        val bot = launch(world, options.fletch, options.nests, options.juju, options.woodBox, options.profile)
+
+        val latency = LatencyHistogram()
+        val leaves = HashMap<String, Long>()
+        val stateTicks = HashMap<String, Long>()
+        var decisions = 0L
+        var measuredFromTick = -1L
+        var measuredFromNanos = 0L
+        var measuredLogs = 0L
+
+        while (world.tick < options.ticks) {
+            val measuring = world.tick >= options.warmupTicks
+            if (measuring && measuredFromTick < 0) {
+                measuredFromTick = world.tick
+                measuredFromNanos = System.nanoTime()
+                measuredLogs = world.counters().logsCut
+            }
+
+            val state = bot.currentStateName ?: "-"
+            val advancedBefore = world.advanceNanos
+            val started = System.nanoTime()
+            val ran = bot.runOnce() != null
+            val elapsed = System.nanoTime() - started - (world.advanceNanos - advancedBefore)
+
+            if (measuring) {
+                latency.record(elapsed)
+                if (ran) {
+                    decisions++
+                }
+            }
+            stateTicks.merge(state, 1L, Long::plus)
+            if (ran) {
+                val leaf = bot.decisionTableMetrics()[state]?.lastLeaf ?: "?"
+                leaves.merge("$state/$leaf", 1L, Long::plus)
+            }
+            world.advance(1)
+        }
+        val measuredNanos = System.nanoTime() - measuredFromNanos
+        val measuredTicks = world.tick - measuredFromTick
+        bot.onDeactivation()
+
+        report(options, world, bot, latency, decisions, measuredTicks, measuredNanos, world.counters().logsCut - measuredLogs, stateTicks, leaves)
+    }
+
+    /**
+     * Installs [world] as the client, then creates, initialises and activates an UberChop set up
+     * for the world's location. The benchmarks use it to get the real script into a chosen state.
+     */
+    fun launch(
+        world: SimWorld,
+        fletch: Boolean = false,
+        nests: Boolean = false,
+        juju: Boolean = false,
+        woodBox: Boolean = false,
+        profile: Boolean = false
+    ): UberChop {
+        val config = world.config
+        SimClient.install(world)
+        val bot = UberChop()
+        bot.settings.apply {
+            savedLocation = config.location
+            savedTreeType = TreeTypes.ALL.indexOfFirst { it.equals(config.treeName, ignoreCase = true) }.coerceAtLeast(0)
+            logHandlingMode = if (fletch) FLETCH_MODE else BANK_MODE
+            pickupNests = nests
+            useJujuPotions = juju
+            withdrawWoodBox = woodBox
+        }
+        world.inventoryListener = bot::onInventoryEvent
+        bot.nodeProfilingEnabled = profile
+        bot.onInitialize()
+        bot.onActivation()
+        return bot
+    }
+
+    private fun report(
+        options: Options,
+        world: SimWorld,
+        bot: UberChop,
+        latency: LatencyHistogram,
+        decisions: Long,
+        measuredTicks: Long,
+        measuredNanos: Long,
+        measuredLogs: Long,
+        stateTicks: Map<String, Long>,
+        leaves: Map<String, Long>
+    ) {
+        val counters = world.counters()
+        val wallSeconds = measuredNanos / 1e9
+        val gameHours = world.tick * SimWorld.TICK_MS / 3_600_000.0
+        val measuredGameHours = measuredTicks * SimWorld.TICK_MS / 3_600_000.0
+        fun micros(nanos: Long) = nanos / 1_000.0
+        fun line(label: String, value: String) = println(String.format(Locale.US, "  %-22s %s", label, value))
+
+        println(
+            String.format(
+                Locale.US, "UberChop simulation: %,d ticks (%.1f game hours), seed %d, %s%s%s%s%s",
+                world.tick, gameHours, options.seed, options.trees?.let { "$it tree(s), " } ?: "", if (options.fletch) "fletch" else "bank",
+                if (options.nests) " +nests" else "", if (options.juju) " +juju" else "", if (options.woodBox) " +woodbox" else ""
+            )
+        )
+        line("ticks/s", String.format(Locale.US, "%,.0f (%,d measured ticks in %.2f s wall)", measuredTicks / wallSeconds, measuredTicks, wallSeconds))
+        line("decisions/s", String.format(Locale.US, "%,.0f", decisions / wallSeconds))
+        line(
+            "tick latency",
+            String.format(
+                Locale.US, "p50 %.1f us  p90 %.1f us  p99 %.1f us  max %.1f us  mean %.1f us",
+                micros(latency.percentileNanos(0.50)), micros(latency.percentileNanos(0.90)),
+                micros(latency.percentileNanos(0.99)), micros(latency.maxNanos()), latency.meanNanos() / 1_000.0
+            )
+        )
+        line(
+            "logs/hour-equivalent",
+            String.format(
+                Locale.US, "%,.0f (measured window; script reports %,d over the whole run)",
+                if (measuredGameHours > 0.0) measuredLogs / measuredGameHours else 0.0, bot.logsPerHour()
+            )
+        )
+        line(
+            "world",
+            String.format(
+                Locale.US, "cut %,d  banked %,d  fletched %,d  nests %d/%d  bank opens %,d  bank actions %,d  depletions %,d  tiles walked %,d",
+                counters.logsCut, counters.logsBanked, counters.itemsFletched, counters.nestsPickedUp, counters.nestsDropped,
+                counters.bankOpens, counters.bankActions, counters.depletions, counters.tilesWalked
+            )
+        )
+        line(
+            "script",
+            String.format(
+                Locale.US, "backpack model mismatches %d  bank index %s/%d slots  gap fletches %,d  tree scans %,d (skipped %,d)  navigation %s",
+                bot.backpackModelMismatches(), bot.bankIndexSource().name.lowercase(), bot.bankIndexSlots(),
+                bot.gapFletchSessions(), bot.treeScanCounts().first, bot.treeScanCounts().second, bot.navigationMetrics()
+            )
+        )
+        bot.bankVisitMetrics().forEach { (location, visits) ->
+            line(
+                "bank visits",
+                String.format(
+                    Locale.US, "%s: %,d visits, avg %.1f ticks (last %d, max %d)",
+                    location, visits.visits, visits.averageTicks, visits.lastTicks, visits.maxTicks
+                )
+            )
+        }
+        Equipment.woodBox.contents()?.takeIf { options.woodBox }?.let { contents ->
+            line("wood box", contents.entries.joinToString("  ") { (name, count) -> "$name $count/${Equipment.woodBox.capacity(name)}" }.ifEmpty { "empty" })
+        }
+        val totalStateTicks = stateTicks.values.sum().coerceAtLeast(1L)
+        line("states", stateTicks.entries.sortedByDescending { it.value }.joinToString("  ") { (name, ticks) ->
+            String.format(Locale.US, "%s %.1f%%", name, ticks * 100.0 / totalStateTicks)
+        })
+        println("  leaves:")
+        leaves.entries.sortedByDescending { it.value }.forEach { (name, count) ->
+            println(String.format(Locale.US, "    %-40s %,10d", name, count))
+        }
+        if (options.profile) {
+            println("  node profile:")
+            bot.nodeProfileRows().forEach { row ->
+                println(
+                    String.format(
+                        Locale.US, "    %-10s %-28s %-6s %,10d  p50 %,7d ns  p99 %,8d ns",
+                        row.state, row.name, row.kind, row.count, row.p50Nanos, row.p99Nanos
+                    )
+                )
+            }
+        }
+    }
+
+    private fun parse(args: Array<String>): Options {
+        var options = Options()
+        for (arg in args) {
+            val value = arg.substringAfter('=', "")
+            options = when (arg.substringBefore('=')) {
+                "--ticks" -> options.copy(ticks = value.toInt())
+                "--warmup" -> options.copy(warmupTicks = value.toInt())
+                "--seed" -> options.copy(seed = value.toLong())
+                "--trees" -> options.copy(trees = value.toInt())
+                "--fletch" -> options.copy(fletch = true)
+                "--nests" -> options.copy(nests = true)
+                "--juju" -> options.copy(juju = true)
+                "--woodbox" -> options.copy(woodBox = true)
+                "--profile" -> options.copy(profile = true)
+                else -> error("unknown argument $arg")
+            }
+        }
+        require(options.warmupTicks < options.ticks) { "--warmup must be below --ticks" }
+        require(options.trees == null || options.trees > 0) { "--trees must be positive" }
+        return options
+    }
+}
@@ -0,0 +1,17 @@
+package net.botwithus.kxapi.game.inventory
+
+import com.uberith.uberchopsim.SimClient
+import net.botwithus.rs3.item.InventoryItem
+import java.util.regex.Pattern
+
+/** Simulation stand-in backed by the simulated backpack. */
+object Backpack {
+
+    fun getItems(): List<InventoryItem> = SimClient.world().backpackItems()
+
+    fun contains(pattern: Pattern): Boolean = SimClient.world().backpackContains(pattern)
+
+    fun isFull(): Boolean = SimClient.world().backpackFull()
+
+    fun interact(item: InventoryItem, option: String): Boolean = SimClient.world().interactItem(item, option)
+}
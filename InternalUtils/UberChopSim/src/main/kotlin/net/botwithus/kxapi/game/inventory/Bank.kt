@@ -0,0 +1,30 @@
+package net.botwithus.kxapi.game.inventory
+
+import com.uberith.uberchopsim.SimClient
+import net.botwithus.rs3.item.InventoryItem
+import java.util.regex.Pattern
+
+/** Simulation stand-in backed by the simulated bank. */
+object Bank {
+
+    fun isOpen(): Boolean = SimClient.world().bankOpen
+
+    @Suppress("UNUSED_PARAMETER")
+    fun open(script: Any): Boolean = SimClient.world().openBank()
+
+    fun close(): Boolean = SimClient.world().closeBank()
+
+    @Suppress("UNUSED_PARAMETER")
+    fun depositAll(script: Any, pattern: Pattern): Boolean = SimClient.world().depositAll(pattern)
+
+    fun depositBackpack(): Boolean = SimClient.world().depositBackpack()
+
+    fun withdraw(pattern: Pattern, amount: Int): Boolean = SimClient.world().withdraw(pattern, amount)
+
+    // Static like the client's, so UberChop's reflective bank lookups resolve against the fake.
+    @JvmStatic
+    fun contains(pattern: Pattern): Boolean = SimClient.world().bankContains(pattern)
+
+    @JvmStatic
+    fun getItems(): List<InventoryItem> = SimClient.world().bankItems()
+}
@@ -0,0 +1,19 @@
+package net.botwithus.kxapi.game.scene
+
+import net.botwithus.kxapi.game.scene.groundItem.PickupBuilder
+import net.botwithus.kxapi.game.scene.groundItem.PickupTask
+
+/** Simulation stand-in for the scene DSL entry point. */
+class Scene internal constructor() {
+
+    fun pickup(block: PickupBuilder.() -> Unit): PickupTask {
+        val builder = PickupBuilder().apply(block)
+        return PickupTask(builder.global.distance, builder.items.toList())
+    }
+}
+
+private val SCENE = Scene()
+
+@Suppress("UnusedReceiverParameter")
+val Any.scene: Scene
+    get() = SCENE
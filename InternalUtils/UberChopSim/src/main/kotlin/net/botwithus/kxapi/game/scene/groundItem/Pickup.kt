@@ -0,0 +1,37 @@
+package net.botwithus.kxapi.game.scene.groundItem
+
+import com.uberith.uberchopsim.SimClient
+
+enum class PickupMessages { NO_ITEMS_FOUND, FULL_INVENTORY, SUCCESS }
+
+enum class PickupItemPriority { LOW, HIGH, VERY_HIGH }
+
+class GlobalBuilder internal constructor() {
+    internal var distance: Int = 10
+
+    fun distance(tiles: Int) {
+        distance = tiles
+    }
+
+    @Suppress("UNUSED_PARAMETER")
+    fun itemPriority(priority: PickupItemPriority) {}
+}
+
+class PickupBuilder internal constructor() {
+    internal val global = GlobalBuilder()
+    internal val items = ArrayList<Regex>()
+
+    fun global(block: GlobalBuilder.() -> Unit) {
+        global.block()
+    }
+
+    fun item(pattern: Regex) {
+        items += pattern
+    }
+}
+
+/** Simulation stand-in: picks up the nearest matching ground item within range in one call. */
+class PickupTask internal constructor(private val distance: Int, private val items: List<Regex>) {
+
+    fun pickup(): PickupMessages = SimClient.world().pickup(items, distance)
+}
@@ -0,0 +1,10 @@
+package net.botwithus.kxapi.game.skilling
+
+/** Simulation stand-in for the skilling DSL entry point. */
+class Skilling internal constructor()
+
+private val SKILLING = Skilling()
+
+@Suppress("UnusedReceiverParameter")
+val Any.skilling: Skilling
+    get() = SKILLING
@@ -0,0 +1,37 @@
+package net.botwithus.kxapi.game.skilling.impl.fletching
+
+import com.uberith.uberchopsim.SimClient
+import net.botwithus.kxapi.game.skilling.Skilling
+
+enum class FletchingProduct(val displayName: String, val primaryMaterial: String?) {
+    ARROW_SHAFTS("Arrow shafts", "Logs"),
+    OAK_SHORTBOW("Oak shortbow (u)", "Oak logs"),
+    WILLOW_SHORTBOW("Willow shortbow (u)", "Willow logs"),
+    MAPLE_SHORTBOW("Maple shortbow (u)", "Maple logs"),
+    YEW_SHORTBOW("Yew shortbow (u)", "Yew logs"),
+    MAGIC_SHORTBOW("Magic shortbow (u)", "Magic logs"),
+    ELDER_SHORTBOW("Elder shortbow (u)", "Elder logs")
+}
+
+class ProductionManager internal constructor(private val product: FletchingProduct) {
+
+    /** Starts a make-all of [product]; the world converts one log every few ticks. */
+    fun all(): Boolean {
+        val material = product.primaryMaterial ?: return false
+        return SimClient.world().startFletching(material, product.displayName)
+    }
+}
+
+class Fletching internal constructor() {
+
+    fun canProduce(product: FletchingProduct): Boolean =
+        product.primaryMaterial?.let { SimClient.world().backpackCount(it) > 0 } ?: false
+
+    fun produce(product: FletchingProduct): ProductionManager = ProductionManager(product)
+}
+
+private val FLETCHING = Fletching()
+
+@Suppress("UnusedReceiverParameter")
+val Skilling.fletching: Fletching
+    get() = FLETCHING
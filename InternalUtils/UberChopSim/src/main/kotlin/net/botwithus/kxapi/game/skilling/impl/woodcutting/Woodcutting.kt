@@ -0,0 +1,37 @@
+package net.botwithus.kxapi.game.skilling.impl.woodcutting
+
+import com.uberith.uberchopsim.SimClient
+import net.botwithus.kxapi.game.skilling.Skilling
+
+enum class TreeType(val displayName: String, val levelReq: Int? = 1) {
+    TREE("Tree"),
+    OAK("Oak", 10),
+    WILLOW("Willow", 20),
+    TEAK("Teak", 30),
+    MAPLE("Maple", 45),
+    ACADIA("Acadia", 47),
+    MAHOGANY("Mahogany", 50),
+    YEW("Yew", 60),
+    MAGIC("Magic", 75),
+    ELDER("Elder", 90),
+    CRYSTAL("Crystal", 94),
+    IVY("Ivy", 68),
+    BAMBOO("Bamboo", 90)
+}
+
+class ChopQuery internal constructor(private val name: String) {
+
+    /** Swings at the closest standing tree called [name]; false when none is standing. */
+    fun nearest(): Boolean = SimClient.world().chopNearest(name)
+}
+
+class Woodcutting internal constructor() {
+
+    fun chop(name: String): ChopQuery = ChopQuery(name)
+}
+
+private val WOODCUTTING = Woodcutting()
+
+@Suppress("UnusedReceiverParameter")
+val Skilling.woodcutting: Woodcutting
+    get() = WOODCUTTING
@@ -0,0 +1,14 @@
+package net.botwithus.kxapi.imgui
+
+import net.botwithus.xapi.script.ui.interfaces.BuildableUI
+
+/** Simulation stand-in; the harness never renders UI. */
+abstract class ImGuiUI : BuildableUI {
+
+    override fun buildUI() {}
+
+    abstract fun build()
+
+    @Suppress("UNUSED_PARAMETER")
+    fun imguiUI(block: () -> Unit) {}
+}
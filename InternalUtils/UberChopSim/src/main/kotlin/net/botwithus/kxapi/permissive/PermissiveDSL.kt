@@ -0,0 +1,17 @@
+package net.botwithus.kxapi.permissive
+
+import net.botwithus.kxapi.permissive.dsl.StateBuilder
+import kotlin.reflect.KClass
+
+interface StateEnum {
+    val description: String
+    val classz: KClass<out PermissiveDSL<*>>
+}
+
+/** Simulation stand-in: a named state whose tree is built once when the script registers it. */
+abstract class PermissiveDSL<T : PermissiveScript<*>>(val script: T, val name: String) {
+
+    abstract fun StateBuilder<T>.create()
+
+    internal fun build(): StateBuilder<T> = StateBuilder(script).apply { create() }
+}
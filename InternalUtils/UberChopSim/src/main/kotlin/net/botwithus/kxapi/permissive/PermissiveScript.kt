@@ -0,0 +1,98 @@
+package net.botwithus.kxapi.permissive
+
+import com.google.gson.JsonObject
+import com.uberith.uberchopsim.SimClient
+import net.botwithus.kxapi.permissive.dsl.StateBuilder
+import net.botwithus.ui.workspace.Workspace
+import net.botwithus.xapi.script.ui.interfaces.BuildableUI
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+
+/**
+ * Simulation stand-in for the permissive script runtime.
+ *
+ * [runOnce] is one client loop iteration: [onPreTick], then one selection of the current state's
+ * tree. [delay] and [delayUntil] block the script the way they do in the client, which here means
+ * advancing the simulated world by that many ticks before returning.
+ */
+@Suppress("UNUSED_PARAMETER")
+abstract class PermissiveScript<S>(debug: Boolean = false) : BuildableUI {
+
+    private val logger: Logger = LoggerFactory.getLogger(javaClass)
+    private val trees = LinkedHashMap<String, StateBuilder<*>>()
+
+    var currentStateName: String? = null
+        private set
+    var status: String = ""
+        private set
+
+    override fun buildUI() {}
+
+    fun getLogger(): Logger = logger
+
+    fun delay(ticks: Int) {
+        SimClient.world().advance(ticks)
+    }
+
+    fun delayUntil(condition: () -> Boolean, ticks: Int): Boolean {
+        repeat(ticks) {
+            if (condition()) {
+                return true
+            }
+            SimClient.world().advance(1)
+        }
+        return condition()
+    }
+
+    fun setStatus(status: String) {
+        this.status = status
+    }
+
+    fun setCurrentState(name: String) {
+        currentStateName = name
+    }
+
+    fun initStates(vararg states: PermissiveDSL<*>) {
+        trees.clear()
+        states.forEach { trees[it.name] = it.build() }
+    }
+
+    fun warn(message: String) = logger.warn(message)
+
+    fun info(message: String) = logger.info(message)
+
+    fun debug(message: String) = logger.debug(message)
+
+    fun performSavePersistentData() {
+        savePersistentData(JsonObject())
+    }
+
+    open fun savePersistentData(container: JsonObject?) {}
+
+    open fun loadPersistentData(container: JsonObject?) {}
+
+    open fun onPreTick(): Boolean = true
+
+    open fun onInitialize() {}
+
+    open fun onActivation() {}
+
+    open fun onDeactivation() {}
+
+    abstract fun init()
+
+    abstract fun getBuildableUI(): BuildableUI
+
+    open fun onDrawConfig(workspace: Workspace?) {}
+
+    abstract fun onDraw(workspace: Workspace)
+
+    /** One loop iteration; returns the leaf that ran, or null when the tick was skipped. */
+    fun runOnce(): String? {
+        if (!onPreTick()) {
+            return null
+        }
+        val tree = trees[currentStateName ?: return null] ?: return null
+        return tree.execute()
+    }
+}
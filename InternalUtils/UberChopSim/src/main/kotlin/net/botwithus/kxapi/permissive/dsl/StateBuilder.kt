@@ -0,0 +1,53 @@
+package net.botwithus.kxapi.permissive.dsl
+
+data class BranchName(val name: String)
+
+data class LeafName(val name: String)
+
+class BranchBuilder internal constructor() {
+    internal var success: Any? = null
+    internal var failure: Any? = null
+
+    fun onSuccess(branch: BranchName) { success = branch }
+    fun onSuccess(leaf: LeafName) { success = leaf }
+    fun onFailure(branch: BranchName) { failure = branch }
+    fun onFailure(leaf: LeafName) { failure = leaf }
+}
+
+/**
+ * Simulation stand-in for the permissive tree DSL. [execute] walks from the root the way the
+ * client runtime does: one condition per branch until a leaf is reached, then runs that leaf.
+ */
+class StateBuilder<T>(val bot: T) {
+
+    private class Branch<T>(val condition: StateBuilder<T>.() -> Boolean, val outcomes: BranchBuilder)
+
+    private val branches = HashMap<String, Branch<T>>()
+    private val leaves = HashMap<String, StateBuilder<T>.() -> Unit>()
+    private var root: String? = null
+
+    fun branch(name: BranchName, condition: StateBuilder<T>.() -> Boolean, block: BranchBuilder.() -> Unit) {
+        branches[name.name] = Branch(condition, BranchBuilder().apply(block))
+    }
+
+    fun leaf(name: LeafName, action: StateBuilder<T>.() -> Unit) {
+        leaves[name.name] = action
+    }
+
+    fun root(name: BranchName) {
+        root = name.name
+    }
+
+    /** Runs one selection and returns the name of the leaf that ran, or null when the tree is incomplete. */
+    fun execute(): String? {
+        var current: Any = BranchName(root ?: return null)
+        while (current is BranchName) {
+            val branch = branches[current.name] ?: return null
+            current = (if (branch.condition(this)) branch.outcomes.success else branch.outcomes.failure) ?: return null
+        }
+        val leaf = current as LeafName
+        val action = leaves[leaf.name] ?: return null
+        action(this)
+        return leaf.name
+    }
+}
@@ -0,0 +1,11 @@
+package net.botwithus.kxapi.script
+
+import com.uberith.uberchopsim.SimClient
+
+/** Simulation stand-in; awaiting ticks advances the simulated world. */
+abstract class SuspendableScript {
+
+    suspend fun awaitTicks(ticks: Int) {
+        SimClient.world().advance(ticks)
+    }
+}
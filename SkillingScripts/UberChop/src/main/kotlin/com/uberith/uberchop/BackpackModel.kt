@@ -0,0 +1,162 @@
+package com.uberith.uberchop
+
+import net.botwithus.rs3.item.InventoryItem
+
+/**
+ * Incremental mirror of the backpack maintained from slot-level inventory events.
+ *
+ * Keeps slot -> item arrays plus per-category quantities and the used-slot count, so
+ * [isFull], [contains] and [count] answer without calling Backpack.getItems(). [reconcile]
+ * is run periodically from the tick thread to catch missed events; each disagreement is
+ * counted in [mismatches] and the model is rebuilt from the live inventory.
+ */
+class BackpackModel(private val classifier: ItemClassifier) {
+
+    companion object {
+        const val SLOT_COUNT = 28
+    }
+
+    private val lock = Any()
+    private val slotItems = arrayOfNulls<InventoryItem>(SLOT_COUNT)
+    private val slotIds = IntArray(SLOT_COUNT) { -1 }
+    private val slotQuantities = IntArray(SLOT_COUNT)
+    private val slotMasks = IntArray(SLOT_COUNT)
+    private val categoryQuantities = IntArray(ItemClassifier.CATEGORY_COUNT)
+    private val categorySlots = IntArray(ItemClassifier.CATEGORY_COUNT)
+    private var usedSlots = 0
+
+    /** False until the first reconcile; events before then are still applied. */
+    @Volatile
+    var initialized: Boolean = false
+        private set
+
+    /** Bumped on every applied change so readers can tell whether the contents moved. */
+    @Volatile
+    var version: Long = 0L
+        private set
+
+    @Volatile
+    var mismatches: Long = 0L
+        private set
+
+    @Volatile
+    var reconciliations: Long = 0L
+        private set
+
+    val freeSlots: Int
+        get() = synchronized(lock) { SLOT_COUNT - usedSlots }
+
+    fun isFull(): Boolean = synchronized(lock) { usedSlots >= SLOT_COUNT }
+
+    fun contains(category: Int): Boolean = synchronized(lock) {
+        for (bit in 0 until ItemClassifier.CATEGORY_COUNT) {
+            if (category and (1 shl bit) != 0 && categorySlots[bit] > 0) {
+                return@synchronized true
+            }
+        }
+        false
+    }
+
+    /** Total quantity held for a single [ItemClassifier] category flag. */
+    fun count(category: Int): Int = synchronized(lock) {
+        categoryQuantities[Integer.numberOfTrailingZeros(category).coerceAtMost(ItemClassifier.CATEGORY_COUNT - 1)]
+    }
+
+    fun first(category: Int): InventoryItem? = synchronized(lock) {
+        for (slot in 0 until SLOT_COUNT) {
+            if (slotMasks[slot] and category != 0) {
+                return@synchronized slotItems[slot]
+            }
+        }
+        null
+    }
+
+    fun items(): List<InventoryItem> = synchronized(lock) { slotItems.filterNotNull() }
+
+    /** Applies one slot change from an inventory event; returns false when the slot is unusable. */
+    fun apply(newItem: InventoryItem): Boolean {
+        val slot = newItem.slot
+        if (slot !in 0 until SLOT_COUNT) {
+            return false
+        }
+        synchronized(lock) {
+            setSlot(slot, newItem)
+            version++
+        }
+        return true
+    }
+
+    /**
+     * Compares the model against [liveItems] and rebuilds it if they disagree.
+     * Returns true when a mismatch was found.
+     */
+    fun reconcile(liveItems: List<InventoryItem>): Boolean = synchronized(lock) {
+        val expectedIds = IntArray(SLOT_COUNT) { -1 }
+        val expectedQuantities = IntArray(SLOT_COUNT)
+        val bySlot = arrayOfNulls<InventoryItem>(SLOT_COUNT)
+        for (item in liveItems) {
+            val slot = item.slot
+            if (slot in 0 until SLOT_COUNT && item.id > -1) {
+                expectedIds[slot] = item.id
+                expectedQuantities[slot] = item.quantity
+                bySlot[slot] = item
+            }
+        }
+
+        var mismatch = false
+        for (slot in 0 until SLOT_COUNT) {
+            if (slotIds[slot] != expectedIds[slot] || slotQuantities[slot] != expectedQuantities[slot]) {
+                mismatch = true
+                setSlot(slot, bySlot[slot])
+            } else if (slotIds[slot] > -1 && slotMasks[slot] == ItemClassifier.NONE) {
+                // The name may not have been loaded when the event arrived; classify again.
+                setSlot(slot, bySlot[slot])
+            }
+        }
+        reconciliations++
+        if (mismatch) {
+            if (initialized) {
+                mismatches++
+            }
+            version++
+        }
+        initialized = true
+        mismatch
+    }
+
+    private fun setSlot(slot: Int, item: InventoryItem?) {
+        val previousMask = slotMasks[slot]
+        if (slotIds[slot] > -1) {
+            usedSlots--
+            adjustCategories(previousMask, -slotQuantities[slot], -1)
+        }
+
+        if (item == null || item.id <= -1) {
+            slotItems[slot] = null
+            slotIds[slot] = -1
+            slotQuantities[slot] = 0
+            slotMasks[slot] = ItemClassifier.NONE
+            return
+        }
+
+        val mask = classifier.classify(item)
+        slotItems[slot] = item
+        slotIds[slot] = item.id
+        slotQuantities[slot] = item.quantity
+        slotMasks[slot] = mask
+        usedSlots++
+        adjustCategories(mask, item.quantity, 1)
+    }
+
+    private fun adjustCategories(mask: Int, quantityDelta: Int, slotDelta: Int) {
+        if (mask == ItemClassifier.NONE) {
+            return
+        }
+        for (bit in 0 until ItemClassifier.CATEGORY_COUNT) {
+            if (mask and (1 shl bit) != 0) {
+                categoryQuantities[bit] += quantityDelta
+                categorySlots[bit] += slotDelta
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.uberith.uberchop
+
+import com.google.gson.JsonArray
+import com.google.gson.JsonObject
+import net.botwithus.rs3.item.InventoryItem
+
+/**
+ * Mirror of the bank's contents keyed by slot, with per-id and per-category totals.
+ *
+ * Filled from bank inventory events and rebuilt from the live bank item list when the bank is
+ * opened without a [Source.LIVE] copy, so [contains] and [count] answer without scanning the bank.
+ * The last copy is persisted with the script data; after a restart it is [Source.RESTORED] until
+ * the bank is read again. A restored copy can be out of date, so callers should trust it when it
+ * says an item is there and confirm against the bank before acting on an absence.
+ */
+class BankIndex(private val classifier: ItemClassifier) {
+
+    enum class Source {
+        /** Nothing known yet. */
+        NONE,
+        /** Loaded from persisted data; the bank may have changed since. */
+        RESTORED,
+        /** Read from the bank this session and kept current by its inventory events. */
+        LIVE
+    }
+
+    private class Entry(val id: Int, val name: String, val quantity: Int, val mask: Int)
+
+    private val lock = Any()
+    private val slots = HashMap<Int, Entry>()
+    private val idQuantities = HashMap<Int, Int>()
+    private val categoryQuantities = IntArray(ItemClassifier.CATEGORY_COUNT)
+
+    @Volatile
+    var source: Source = Source.NONE
+        private set
+
+    /** Bumped on every change so the persisted copy is only rewritten when it moved. */
+    @Volatile
+    var version: Long = 0L
+        private set
+
+    @Volatile
+    var rebuilds: Long = 0L
+        private set
+
+    fun contains(category: Int): Boolean = synchronized(lock) {
+        for (bit in 0 until ItemClassifier.CATEGORY_COUNT) {
+            if (category and (1 shl bit) != 0 && categoryQuantities[bit] > 0) {
+                return@synchronized true
+            }
+        }
+        false
+    }
+
+    /** Total quantity banked for a single [ItemClassifier] category flag. */
+    fun count(category: Int): Int = synchronized(lock) {
+        categoryQuantities[Integer.numberOfTrailingZeros(category).coerceAtMost(ItemClassifier.CATEGORY_COUNT - 1)]
+    }
+
+    fun countId(id: Int): Int = synchronized(lock) { idQuantities[id] ?: 0 }
+
+    val size: Int
+        get() = synchronized(lock) { slots.size }
+
+    /** Applies one slot change from a bank inventory event. */
+    fun apply(newItem: InventoryItem) {
+        if (newItem.slot < 0) {
+            return
+        }
+        synchronized(lock) {
+            setSlot(newItem.slot, newItem.id, newItem.name.orEmpty(), newItem.quantity)
+            version++
+        }
+    }
+
+    /** Replaces the contents with [liveItems] read from the open bank. */
+    fun rebuild(liveItems: List<InventoryItem>) = synchronized(lock) {
+        clear()
+        for (item in liveItems) {
+            if (item.slot >= 0) {
+                setSlot(item.slot, item.id, item.name.orEmpty(), item.quantity)
+            }
+        }
+        source = Source.LIVE
+        rebuilds++
+        version++
+    }
+
+    /** Drops entries in [category] after a withdraw found none, e.g. when a restored copy was stale. */
+    fun markMissing(category: Int) = synchronized(lock) {
+        val stale = slots.filterValues { it.mask and category != 0 }.keys
+        stale.forEach { slot -> setSlot(slot, -1, "", 0) }
+        if (stale.isNotEmpty()) {
+            version++
+        }
+    }
+
+    fun toJson(): JsonObject = synchronized(lock) {
+        JsonObject().apply {
+            add("items", JsonArray().apply {
+                slots.entries.sortedBy { it.key }.forEach { (slot, entry) ->
+                    add(JsonArray().apply {
+                        add(slot)
+                        add(entry.id)
+                        add(entry.name)
+                        add(entry.quantity)
+                    })
+                }
+            })
+        }
+    }
+
+    /** Loads a persisted copy unless the bank has already been read this session. */
+    fun restore(json: JsonObject) = synchronized(lock) {
+        if (source == Source.LIVE) {
+            return@synchronized
+        }
+        clear()
+        json.getAsJsonArray("items")?.forEach { element ->
+            val row = element.asJsonArray
+            setSlot(row[0].asInt, row[1].asInt, row[2].asString, row[3].asInt)
+        }
+        source = if (slots.isEmpty()) Source.NONE else Source.RESTORED
+        version++
+    }
+
+    private fun clear() {
+        slots.clear()
+        idQuantities.clear()
+        categoryQuantities.fill(0)
+    }
+
+    private fun setSlot(slot: Int, id: Int, name: String, quantity: Int) {
+        slots.remove(slot)?.let { previous -> adjust(previous, -previous.quantity) }
+        if (id <= -1 || quantity <= 0) {
+            return
+        }
+        val entry = Entry(id, name, quantity, classifier.classify(id, name))
+        slots[slot] = entry
+        adjust(entry, quantity)
+    }
+
+    private fun adjust(entry: Entry, quantityDelta: Int) {
+        val total = (idQuantities[entry.id] ?: 0) + quantityDelta
+        if (total > 0) idQuantities[entry.id] = total else idQuantities.remove(entry.id)
+        if (entry.mask == ItemClassifier.NONE) {
+            return
+        }
+        for (bit in 0 until ItemClassifier.CATEGORY_COUNT) {
+            if (entry.mask and (1 shl bit) != 0) {
+                categoryQuantities[bit] += quantityDelta
+            }
+        }
+    }
+}
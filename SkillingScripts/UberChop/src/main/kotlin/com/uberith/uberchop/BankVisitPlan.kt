@@ -0,0 +1,25 @@
+package com.uberith.uberchop
+
+/**
+ * Everything one bank visit has to do, decided once while the bank is open.
+ *
+ * The Banking state runs the steps back-to-back in this order, each one checked against the
+ * inventory events it causes before the next is sent: deposits, the juju restock, the wood box
+ * withdraw, then closing the bank and heading back to the trees when [close] is set. Withdraw
+ * counts are sized against the space the deposits will free, not the backpack as it is now.
+ */
+class BankVisitPlan(
+    val deposit: DepositPlanner.Plan,
+    /** Juju potions to withdraw; 0 when no restock is due. */
+    val jujuWithdraw: Int,
+    val withdrawWoodBox: Boolean,
+    /** False while the visit still has to wait on something, such as a wood box retry cooldown. */
+    val close: Boolean
+) {
+    val isEmpty: Boolean
+        get() = deposit.isEmpty && jujuWithdraw == 0 && !withdrawWoodBox
+
+    override fun toString(): String =
+        "deposit=${if (deposit.isEmpty) "-" else "${deposit.items.size} id(s)${if (deposit.depositBackpack) " (backpack)" else ""}"} " +
+            "juju=$jujuWithdraw woodBox=$withdrawWoodBox close=$close"
+}
@@ -0,0 +1,39 @@
+package com.uberith.uberchop
+
+/**
+ * Bank visit durations in game ticks, kept per tree location.
+ *
+ * A visit runs from the first attempt to open the bank until the bank is closed again.
+ */
+class BankVisitStats {
+
+    data class Summary(
+        val visits: Long,
+        val averageTicks: Double,
+        val lastTicks: Int,
+        val maxTicks: Int
+    )
+
+    private class Entry {
+        var visits = 0L
+        var totalTicks = 0L
+        var lastTicks = 0
+        var maxTicks = 0
+    }
+
+    private val byLocation = LinkedHashMap<String, Entry>()
+
+    fun record(location: String, ticks: Int) = synchronized(byLocation) {
+        val entry = byLocation.getOrPut(location.ifBlank { "Unknown" }) { Entry() }
+        entry.visits++
+        entry.totalTicks += ticks
+        entry.lastTicks = ticks
+        entry.maxTicks = maxOf(entry.maxTicks, ticks)
+    }
+
+    fun summaries(): Map<String, Summary> = synchronized(byLocation) {
+        byLocation.mapValues { (_, entry) ->
+            Summary(entry.visits, entry.totalTicks.toDouble() / entry.visits, entry.lastTicks, entry.maxTicks)
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.uberith.uberchop
+
+import net.botwithus.rs3.item.InventoryItem
+import java.util.regex.Pattern
+
+/**
+ * Decides what to put in the bank on a visit and in how few interactions.
+ *
+ * An item is deposited when its [ItemClassifier] category is one of the categories the caller
+ * asks for, or its name matches an entry of Settings.depositInclude. A match in
+ * Settings.depositKeep always keeps the item, and the wood box and juju potions are never
+ * deposited because the script manages them itself. Filter entries are case-insensitive
+ * substrings of the item name.
+ *
+ * When every occupied slot is going in the bank the plan is a single deposit of the whole
+ * backpack; otherwise it is one Deposit-All per distinct item id.
+ */
+class DepositPlanner(private val classifier: ItemClassifier) {
+
+    class Plan internal constructor(
+        /** True when nothing in the backpack is kept, so one backpack deposit does the job. */
+        val depositBackpack: Boolean,
+        /** One item per distinct id to deposit, in slot order. */
+        val items: List<InventoryItem>,
+        /** [ItemClassifier] categories among the deposited items. */
+        val categories: Int,
+        /** True when some deposited item is only there because of the include filter. */
+        val includesFiltered: Boolean,
+        /** Occupied slots that stay in the backpack. */
+        val keptSlots: Int
+    ) {
+        val isEmpty: Boolean
+            get() = items.isEmpty()
+
+        /** Interactions [items] needs when the backpack deposit is not available. */
+        val interactions: Int
+            get() = if (depositBackpack) 1 else items.size
+
+        fun deposits(category: Int): Boolean = categories and category != 0
+
+        companion object {
+            val EMPTY = Plan(false, emptyList(), ItemClassifier.NONE, false, 0)
+        }
+    }
+
+    private class Filter(val source: List<String>, val pattern: Pattern?) {
+        fun matches(name: String): Boolean = pattern != null && pattern.matcher(name).find()
+    }
+
+    private var include = Filter(emptyList(), null)
+    private var keep = Filter(emptyList(), null)
+
+    /**
+     * Builds the plan for [items]. [depositCategories] is the set of categories this visit should
+     * bank; [includeNames] and [keepNames] are the user's filters, recompiled only when they change.
+     */
+    fun plan(
+        items: List<InventoryItem>,
+        depositCategories: Int,
+        includeNames: List<String>,
+        keepNames: List<String>
+    ): Plan {
+        if (items.isEmpty()) {
+            return Plan.EMPTY
+        }
+        include = refresh(include, includeNames)
+        keep = refresh(keep, keepNames)
+
+        val planned = ArrayList<InventoryItem>()
+        val seenIds = HashSet<Int>()
+        var categories = ItemClassifier.NONE
+        var includesFiltered = false
+        var keptSlots = 0
+        for (item in items) {
+            if (item.id < 0) {
+                continue
+            }
+            val name = item.name.orEmpty()
+            val mask = classifier.classify(item.id, name)
+            val byCategory = mask and depositCategories != 0
+            val byInclude = !byCategory && include.matches(name)
+            val deposit = (byCategory || byInclude) && mask and PROTECTED == 0 && !keep.matches(name)
+            if (!deposit) {
+                keptSlots++
+                continue
+            }
+            categories = categories or (mask and depositCategories)
+            includesFiltered = includesFiltered || byInclude
+            if (seenIds.add(item.id)) {
+                planned += item
+            }
+        }
+        if (planned.isEmpty()) {
+            return Plan.EMPTY
+        }
+        return Plan(keptSlots == 0, planned, categories, includesFiltered, keptSlots)
+    }
+
+    private fun refresh(current: Filter, names: List<String>): Filter {
+        if (current.source == names) {
+            return current
+        }
+        val terms = names.map { it.trim() }.filter { it.isNotEmpty() }
+        val pattern = if (terms.isEmpty()) {
+            null
+        } else {
+            Pattern.compile(terms.joinToString("|") { Pattern.quote(it) }, Pattern.CASE_INSENSITIVE or Pattern.UNICODE_CASE)
+        }
+        return Filter(names.toList(), pattern)
+    }
+
+    private companion object {
+        const val PROTECTED = ItemClassifier.WOOD_BOX or ItemClassifier.JUJU_POTION
+    }
+}
@@ -1,5 +1,6 @@
 package com.uberith.uberchop
 
+import com.uberith.api.utils.ScriptClock
 import net.botwithus.kxapi.game.inventory.Bank
 import net.botwithus.rs3.item.InventoryItem
 import net.botwithus.kxapi.game.inventory.Backpack
@@ -16,6 +17,103 @@ object Equipment {
 
     val WOOD_BOX_PATTERN: Pattern = Pattern.compile(".*wood box.*", Pattern.CASE_INSENSITIVE)
     private const val FILL_OPTION = "Fill"
+    // Backpack removals this long after a Fill are credited to the box.
+    private const val FILL_WINDOW_MS = 1_800L
+
+    // Per-log-type capacity by box tier. Starting estimates only; the model corrects them from fills it sees.
+    private val WOOD_BOX_CAPACITY = linkedMapOf(
+        "eternal magic" to 170, "elder" to 160, "magic" to 150, "yew" to 140, "mahogany" to 130,
+        "acadia" to 120, "maple" to 110, "teak" to 100, "willow" to 90, "oak" to 80
+    )
+    private const val BASIC_WOOD_BOX_CAPACITY = 70
+
+    /**
+     * Contents of a container item (the wood box) per stored item name, learned from the
+     * interactions that move items in and out of it.
+     *
+     * Until the container has been emptied once its contents are unknown and [space] returns null.
+     * Emptying makes every type known at zero. Items leaving the backpack while a fill is open are
+     * credited to the container. A fill that moves nothing marks that type full, and lowers its
+     * capacity if the model thought there was room. A fill that overshoots raises it.
+     */
+    class ContainerModel(@Volatile var defaultCapacity: Int) {
+
+        private val lock = Any()
+        private val counts = LinkedHashMap<String, Int>()
+        private val capacities = HashMap<String, Int>()
+        private var known = false
+        private var fillOpenUntil = 0L
+        private var credited = 0
+
+        /** Forget everything, e.g. when the script restarts with a box of unknown contents. */
+        fun reset() = synchronized(lock) {
+            counts.clear()
+            capacities.clear()
+            known = false
+            fillOpenUntil = 0L
+        }
+
+        /** The container was emptied; every type is now known to be at zero. */
+        fun emptied() = synchronized(lock) {
+            counts.clear()
+            known = true
+        }
+
+        /** Call just before sending a fill; removals seen in the next [windowMs] are credited. */
+        fun beginFill(windowMs: Long = FILL_WINDOW_MS) = synchronized(lock) {
+            fillOpenUntil = ScriptClock.now() + windowMs
+            credited = 0
+        }
+
+        /** Backpack delta from the inventory event handler; ignored unless a fill is open. */
+        fun onBackpackRemoved(name: String, quantity: Int) = synchronized(lock) {
+            if (quantity <= 0 || ScriptClock.now() > fillOpenUntil) {
+                return@synchronized
+            }
+            credited += quantity
+            val current = counts[name] ?: if (known) 0 else return@synchronized
+            val updated = current + quantity
+            counts[name] = updated
+            if (updated > capacity(name)) {
+                capacities[name] = updated
+            }
+        }
+
+        /** Closes the fill started by [beginFill]; returns how many items it moved. */
+        fun endFill(name: String): Int = synchronized(lock) {
+            fillOpenUntil = 0L
+            if (credited == 0) {
+                // Nothing went in although the backpack had [name]: the box is full for that type.
+                val current = counts[name]
+                if (current != null && current < capacity(name)) {
+                    capacities[name] = current
+                }
+                counts[name] = capacity(name)
+            }
+            credited
+        }
+
+        fun capacity(name: String): Int = synchronized(lock) { capacities[name] ?: defaultCapacity }
+
+        /** Items of [name] held, or null while unknown. */
+        fun count(name: String): Int? = synchronized(lock) { counts[name] ?: if (known) 0 else null }
+
+        /** Room left for [name], or null while unknown. */
+        fun space(name: String): Int? = count(name)?.let { (capacity(name) - it).coerceAtLeast(0) }
+
+        /** True unless the model knows there is no room for [name]. */
+        fun canAccept(name: String): Boolean = space(name)?.let { it > 0 } ?: true
+
+        fun contents(): Map<String, Int>? = synchronized(lock) { if (known || counts.isNotEmpty()) LinkedHashMap(counts) else null }
+    }
+
+    val woodBox = ContainerModel(BASIC_WOOD_BOX_CAPACITY)
+
+    fun woodBoxCapacity(boxName: String): Int {
+        val normalized = boxName.lowercase()
+        return WOOD_BOX_CAPACITY.entries.firstOrNull { (tier, _) -> normalized.startsWith(tier) }?.value
+            ?: BASIC_WOOD_BOX_CAPACITY
+    }
 
     fun hasWoodBox(pattern: Pattern = WOOD_BOX_PATTERN): Boolean = Backpack.contains(pattern)
 
@@ -52,10 +150,11 @@ object Equipment {
             logger.debug("[Equipment] No wood box found to fill")
             return false
         }
+        woodBox.defaultCapacity = woodBoxCapacity(box.name)
+        // Events for the fill can arrive before interact returns, so open the window first.
+        woodBox.beginFill()
         val interacted = Backpack.interact(box, option)
         logger.debug("[Equipment] Backpack.interact('{}') -> {}", option, interacted)
-        if (interacted) {
-        }
         return interacted
     }
 
@@ -73,10 +172,12 @@ object Equipment {
             logger.debug("[Equipment] Bank must be open to empty the wood box")
             return false
         }
+        woodBox.defaultCapacity = woodBoxCapacity(box.name)
         val interacted = Backpack.interact(box, option)
         logger.debug("[Equipment] Backpack.interact('{}') -> {}", option, interacted)
         if (interacted) {
             script.info("Emptying wood box contents into bank")
+            woodBox.emptied()
         }
         return interacted
     }
@@ -0,0 +1,110 @@
+package com.uberith.uberchop
+
+import net.botwithus.kxapi.game.skilling.impl.fletching.FletchingProduct
+import org.slf4j.LoggerFactory
+
+/**
+ * Log to fletching recipe lookup, built once from [FletchingProduct.entries].
+ *
+ * Names resolve as the script always has: plain "Logs" make arrow shafts, otherwise the first
+ * product whose primary material equals the name, then the first whose material and the name
+ * contain one another. Each name and item id is resolved once and cached. [canProduce] keeps the
+ * client's answer until the Fletching level or the backpack changes. Levels are keyed by log name,
+ * since the product API does not expose them; a log missing from [LEVELS] is logged and gated at 1.
+ */
+class FletchingRecipeTable(products: List<FletchingProduct> = FletchingProduct.entries) {
+
+    class Recipe(val product: FletchingProduct, val material: String, val level: Int)
+
+    // Lower-cased primary material -> recipe, in entry order so the first product still wins.
+    private val byMaterial = LinkedHashMap<String, Recipe>()
+    private val arrowShafts: Recipe?
+    private val lock = Any()
+    private val byName = HashMap<String, Recipe?>()
+    private val byId = HashMap<Int, Recipe?>()
+
+    private var producibleRecipe: Recipe? = null
+    private var producibleLevel = -1
+    private var producibleBackpackVersion = -1L
+    private var producible = false
+
+    init {
+        val unmapped = LinkedHashSet<String>()
+        for (product in products) {
+            val material = product.primaryMaterial?.lowercase() ?: continue
+            val level = LEVELS[material]
+            if (level == null && material.contains("log")) {
+                unmapped += material
+            }
+            byMaterial.putIfAbsent(material, Recipe(product, material, level ?: 1))
+        }
+        if (unmapped.isNotEmpty()) {
+            LoggerFactory.getLogger(FletchingRecipeTable::class.java)
+                .warn("No Fletching level known for {}; the client check alone decides for them", unmapped)
+        }
+        arrowShafts = products.firstOrNull { it.name == "ARROW_SHAFTS" }
+            ?.let { Recipe(it, it.primaryMaterial?.lowercase() ?: "logs", 1) }
+    }
+
+    val size: Int
+        get() = byMaterial.size
+
+    fun resolve(itemName: String): Recipe? = synchronized(lock) {
+        if (byName.containsKey(itemName)) byName[itemName] else lookup(itemName).also { byName[itemName] = it }
+    }
+
+    fun forItem(id: Int, itemName: String): Recipe? = synchronized(lock) {
+        if (byId.containsKey(id)) byId[id] else resolve(itemName).also { byId[id] = it }
+    }
+
+    /**
+     * Whether [recipe] can be made now. Below its level the client is not asked; otherwise [check]
+     * runs once per change of [level] or [backpackVersion]. A throwing [check] is not cached.
+     */
+    fun canProduce(recipe: Recipe, level: Int, backpackVersion: Long, check: (FletchingProduct) -> Boolean): Boolean {
+        if (level < recipe.level) {
+            return false
+        }
+        synchronized(lock) {
+            if (producibleRecipe === recipe && producibleLevel == level && producibleBackpackVersion == backpackVersion) {
+                return producible
+            }
+        }
+        val result = check(recipe.product)
+        synchronized(lock) {
+            producibleRecipe = recipe
+            producibleLevel = level
+            producibleBackpackVersion = backpackVersion
+            producible = result
+        }
+        return result
+    }
+
+    private fun lookup(itemName: String): Recipe? {
+        val normalized = itemName.lowercase()
+        if (!normalized.contains("log")) {
+            return null
+        }
+        if (normalized == "logs" || normalized == "normal logs") {
+            return arrowShafts
+        }
+        byMaterial[normalized]?.let { return it }
+        return byMaterial.entries.firstOrNull { (material, _) ->
+            normalized.contains(material) || material.contains(normalized)
+        }?.value
+    }
+
+    private companion object {
+        // Lowest Fletching level at which anything is made from each log (its arrow shafts). A lower
+        // bound only skips the client check below it, so a log's other products are still safe.
+        val LEVELS = mapOf(
+            "logs" to 1,
+            "oak logs" to 15,
+            "willow logs" to 30,
+            "maple logs" to 45,
+            "yew logs" to 60,
+            "magic logs" to 75,
+            "elder logs" to 90
+        )
+    }
+}
@@ -0,0 +1,101 @@
+package com.uberith.uberchop
+
+import net.botwithus.rs3.item.GroundItemStack
+import net.botwithus.rs3.world.Coordinate
+import net.botwithus.rs3.world.World
+import kotlin.math.abs
+import kotlin.math.max
+
+/**
+ * Ground items matching one name pattern within a radius of a fixed centre (the chop tile).
+ *
+ * [tick] only rescans the ground when the centre or the player's region changed, when someone
+ * called [invalidate], or every [refreshIntervalTicks] ticks otherwise. Stacks outside the radius
+ * are skipped before their items are looked at, and each distinct item name is matched once and
+ * remembered until the player changes region (or the cache outgrows [MAX_CACHED_NAMES]). Between
+ * scans [present] is a plain field read.
+ */
+class GroundItemIndex(
+    private val matches: (String) -> Boolean,
+    private val radius: Int,
+    private val refreshIntervalTicks: Int = 5,
+    private val source: () -> List<GroundItemStack> = { World.getGroundItems() }
+) {
+
+    data class Metrics(
+        val scans: Long,
+        val skippedTicks: Long,
+        val distinctNames: Int
+    )
+
+    private companion object {
+        private const val MAX_CACHED_NAMES = 256
+    }
+
+    private val nameMatches = HashMap<String, Boolean>()
+    private var center: Coordinate? = null
+    private var regionId = Int.MIN_VALUE
+    private var ticksUntilScan = 0
+
+    @Volatile var present: Boolean = false
+        private set
+    @Volatile var tiles: List<Coordinate> = emptyList()
+        private set
+
+    @Volatile private var scans = 0L
+    @Volatile private var skippedTicks = 0L
+
+    /** Called once per tick; rescans only when something suggests the ground changed. */
+    fun tick(center: Coordinate?, player: Coordinate?) {
+        val anchor = center ?: player
+        if (anchor == null) {
+            present = false
+            return
+        }
+        val region = player?.regionId ?: regionId
+        if (anchor != this.center || region != regionId || --ticksUntilScan <= 0) {
+            if (region != regionId) {
+                // Names seen in the last region are unlikely to show up again.
+                nameMatches.clear()
+            }
+            this.center = anchor
+            regionId = region
+            ticksUntilScan = refreshIntervalTicks
+            scan(anchor)
+        } else {
+            skippedTicks++
+        }
+    }
+
+    /** Forces a rescan on the next [tick], e.g. right after a pickup. */
+    fun invalidate() {
+        ticksUntilScan = 0
+    }
+
+    /** Reports nothing until the next scheduled scan; used when a pickup found the index stale. */
+    fun markEmpty() {
+        present = false
+        tiles = emptyList()
+    }
+
+    fun metrics(): Metrics = Metrics(scans, skippedTicks, nameMatches.size)
+
+    private fun scan(anchor: Coordinate) {
+        scans++
+        if (nameMatches.size > MAX_CACHED_NAMES) {
+            nameMatches.clear()
+        }
+        val found = ArrayList<Coordinate>(2)
+        for (stack in source()) {
+            val tile = stack.coordinate ?: continue
+            if (tile.z != anchor.z || max(abs(tile.x - anchor.x), abs(tile.y - anchor.y)) > radius) {
+                continue
+            }
+            if (stack.items.any { item -> nameMatches.getOrPut(item.name) { matches(item.name) } }) {
+                found += tile
+            }
+        }
+        tiles = found
+        present = found.isNotEmpty()
+    }
+}
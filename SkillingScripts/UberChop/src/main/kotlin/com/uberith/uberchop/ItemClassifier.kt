@@ -0,0 +1,84 @@
+package com.uberith.uberchop
+
+import com.uberith.api.utils.IntIntMap
+import net.botwithus.rs3.item.InventoryItem
+import java.util.regex.Pattern
+
+/**
+ * Maps item ids to a bitmask of the categories UberChop cares about.
+ *
+ * Each id is classified once from its name (a single pass of one combined pattern) and cached,
+ * so inventory scans and events only pay for an int lookup afterwards.
+ */
+class ItemClassifier(private val isFletchable: (String) -> Boolean) {
+
+    companion object {
+        const val NONE = 0
+        const val LOG = 1
+        const val BIRD_NEST = 1 shl 1
+        const val JUJU_POTION = 1 shl 2
+        const val JUJU_VIAL = 1 shl 3
+        const val WOOD_BOX = 1 shl 4
+        const val FLETCHABLE = 1 shl 5
+        /** Number of category bits above; sizes per-category arrays. */
+        const val CATEGORY_COUNT = 6
+
+        // Group order must match CATEGORY_BY_GROUP.
+        private val COMBINED: Pattern = Pattern.compile(
+            "(logs)|(bird['\\u2019]?s nest)|(juju\\s+woodcutting\\s+potion)|(juju\\s+vial)|(wood box)",
+            Pattern.CASE_INSENSITIVE
+        )
+        private val CATEGORY_BY_GROUP = intArrayOf(LOG, BIRD_NEST, JUJU_POTION, JUJU_VIAL, WOOD_BOX)
+    }
+
+    private val byId = IntIntMap(64)
+
+    fun classify(item: InventoryItem?): Int =
+        if (item == null) NONE else classify(item.id, item.name)
+
+    fun classify(id: Int, name: String?): Int {
+        if (id < 0) {
+            return NONE
+        }
+        synchronized(byId) {
+            val cached = byId.get(id, -1)
+            if (cached != -1) {
+                return cached
+            }
+        }
+        if (name.isNullOrBlank()) {
+            // Definition not loaded yet; try again next time instead of caching a miss.
+            return NONE
+        }
+        val mask = classifyName(name)
+        synchronized(byId) {
+            byId.put(id, mask)
+        }
+        return mask
+    }
+
+    fun matches(item: InventoryItem?, category: Int): Boolean = classify(item) and category != 0
+
+    fun classifyName(name: String): Int {
+        var mask = NONE
+        val matcher = COMBINED.matcher(name)
+        while (matcher.find()) {
+            for (group in CATEGORY_BY_GROUP.indices) {
+                if (matcher.start(group + 1) >= 0) {
+                    mask = mask or CATEGORY_BY_GROUP[group]
+                    break
+                }
+            }
+        }
+        if (mask and LOG != 0 && isFletchable(name)) {
+            mask = mask or FLETCHABLE
+        }
+        return mask
+    }
+
+    fun clear() {
+        synchronized(byId) {
+            byId.clear()
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.uberith.uberchop
+
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Session and lifetime counters for UberChop without a shared lock.
+ *
+ * All fields live in one immutable [Snapshot] held by an [AtomicReference]. Writers (the event
+ * thread adding logs, the tick thread committing runtime/XP) publish a new snapshot with a CAS
+ * loop; readers such as the GUI and the persistence thread just read the reference, so they never
+ * block the tick and always see every field from the same [Snapshot.version].
+ */
+class StatsCounters {
+
+    data class Snapshot(
+        val version: Long = 0L,
+        val sessionLogs: Long = 0L,
+        val sessionNests: Long = 0L,
+        val accumulatedRuntimeMs: Long = 0L,
+        val activeRuntimeStartMs: Long = 0L,
+        val sessionRuntimeCommittedMs: Long = 0L,
+        val startingXp: Int = 0,
+        val startingLevel: Int = 0,
+        val sessionXpCommitted: Int = 0,
+        val sessionLevelsCommitted: Int = 0,
+        val lifetimeLogs: Long = 0L,
+        val lifetimeNests: Long = 0L,
+        val lifetimeRuntimeMs: Long = 0L,
+        val lifetimeXp: Long = 0L,
+        val lifetimeLevels: Long = 0L
+    ) {
+        val isRunning: Boolean
+            get() = activeRuntimeStartMs != 0L
+
+        fun runtimeMillis(now: Long): Long =
+            if (activeRuntimeStartMs != 0L) accumulatedRuntimeMs + (now - activeRuntimeStartMs) else accumulatedRuntimeMs
+    }
+
+    private val state = AtomicReference(Snapshot())
+
+    fun snapshot(): Snapshot = state.get()
+
+    fun addLogs(quantity: Int) {
+        if (quantity > 0) {
+            update { it.copy(sessionLogs = it.sessionLogs + quantity, lifetimeLogs = it.lifetimeLogs + quantity) }
+        }
+    }
+
+    fun addNests(quantity: Int) {
+        if (quantity > 0) {
+            update { it.copy(sessionNests = it.sessionNests + quantity, lifetimeNests = it.lifetimeNests + quantity) }
+        }
+    }
+
+    /** Starts the runtime clock if it is not already running; returns true when it was started. */
+    fun startRuntime(now: Long): Boolean {
+        var started = false
+        update {
+            started = !it.isRunning
+            if (started) it.copy(activeRuntimeStartMs = now) else it
+        }
+        return started
+    }
+
+    fun stopRuntime(now: Long) {
+        update {
+            if (it.isRunning) {
+                it.copy(accumulatedRuntimeMs = it.accumulatedRuntimeMs + (now - it.activeRuntimeStartMs), activeRuntimeStartMs = 0L)
+            } else {
+                it
+            }
+        }
+    }
+
+    /** Clears session values and rebases XP/level tracking; lifetime totals are kept. */
+    fun resetSession(startingXp: Int, startingLevel: Int) {
+        update {
+            it.copy(
+                sessionLogs = 0L,
+                sessionNests = 0L,
+                accumulatedRuntimeMs = 0L,
+                activeRuntimeStartMs = 0L,
+                sessionRuntimeCommittedMs = 0L,
+                startingXp = startingXp,
+                startingLevel = startingLevel,
+                sessionXpCommitted = 0,
+                sessionLevelsCommitted = 0
+            )
+        }
+    }
+
+    /** Moves runtime, XP and levels gained since the last commit into the lifetime totals. */
+    fun commitSession(now: Long, currentXp: Int, currentLevel: Int) {
+        update {
+            val runtimeDelta = (it.runtimeMillis(now) - it.sessionRuntimeCommittedMs).coerceAtLeast(0L)
+            val xpDelta = ((currentXp - it.startingXp).coerceAtLeast(0) - it.sessionXpCommitted).coerceAtLeast(0)
+            val levelDelta = ((currentLevel - it.startingLevel).coerceAtLeast(0) - it.sessionLevelsCommitted).coerceAtLeast(0)
+            if (runtimeDelta == 0L && xpDelta == 0 && levelDelta == 0) {
+                it
+            } else {
+                it.copy(
+                    sessionRuntimeCommittedMs = it.sessionRuntimeCommittedMs + runtimeDelta,
+                    lifetimeRuntimeMs = it.lifetimeRuntimeMs + runtimeDelta,
+                    sessionXpCommitted = it.sessionXpCommitted + xpDelta,
+                    lifetimeXp = it.lifetimeXp + xpDelta,
+                    sessionLevelsCommitted = it.sessionLevelsCommitted + levelDelta,
+                    lifetimeLevels = it.lifetimeLevels + levelDelta
+                )
+            }
+        }
+    }
+
+    /** Restores persisted lifetime totals; null values leave the current total in place. */
+    fun loadLifetime(logs: Long?, nests: Long?, runtimeMs: Long?, xp: Long?, levels: Long?) {
+        update {
+            it.copy(
+                lifetimeLogs = logs ?: it.lifetimeLogs,
+                lifetimeNests = nests ?: it.lifetimeNests,
+                lifetimeRuntimeMs = runtimeMs ?: it.lifetimeRuntimeMs,
+                lifetimeXp = xp ?: it.lifetimeXp,
+                lifetimeLevels = levels ?: it.lifetimeLevels
+            )
+        }
+    }
+
+    private inline fun update(transform: (Snapshot) -> Snapshot) {
+        while (true) {
+            val current = state.get()
+            val next = transform(current)
+            if (next === current || state.compareAndSet(current, next.copy(version = current.version + 1))) {
+                return
+            }
+        }
+    }
+}
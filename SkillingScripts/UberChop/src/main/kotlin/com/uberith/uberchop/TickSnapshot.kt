@@ -0,0 +1,55 @@
+package com.uberith.uberchop
+
+import com.uberith.api.game.world.Coordinates
+import net.botwithus.kxapi.game.inventory.Bank
+import net.botwithus.rs3.entities.LocalPlayer
+import net.botwithus.rs3.item.InventoryItem
+import net.botwithus.rs3.world.Coordinate
+
+/**
+ * Sensed client state shared by every branch condition and leaf during one tick.
+ *
+ * [capture] runs once from [UberChop.onPreTick] so the decision trees read plain fields instead of
+ * querying the local player and bank over and over. Backpack questions are answered by the
+ * event-maintained [BackpackModel], which is always current.
+ */
+class TickSnapshot(val backpack: BackpackModel) {
+
+    /** Backpack contents as tracked by the model. */
+    val backpackItems: List<InventoryItem>
+        get() = backpack.items()
+
+    val backpackFull: Boolean
+        get() = backpack.isFull()
+
+    var playerAvailable: Boolean = false
+        private set
+    var playerCoordinate: Coordinate? = null
+        private set
+    var animationId: Int = -1
+        private set
+    var isMoving: Boolean = false
+        private set
+    var bankOpen: Boolean = false
+        private set
+
+    fun capture() {
+        val player = LocalPlayer.self()
+        playerAvailable = player != null
+        playerCoordinate = player?.coordinate
+        animationId = player?.animationId ?: -1
+        isMoving = player?.isMoving ?: false
+        bankOpen = runCatching { Bank.isOpen() }.getOrDefault(false)
+    }
+
+    /** True when any backpack item falls into one of the [ItemClassifier] categories in [category]. */
+    fun contains(category: Int): Boolean = backpack.contains(category)
+
+    fun first(category: Int): InventoryItem? = backpack.first(category)
+
+    fun distanceTo(target: Coordinate): Double? =
+        playerCoordinate?.let { Coordinates.distance(it, target) }
+
+    fun isPlayerWithinRadius(center: Coordinate?, radius: Int): Boolean =
+        playerCoordinate?.let { Coordinates.withinRadius(it, center, radius) } ?: false
+}
@@ -0,0 +1,191 @@
+package com.uberith.uberchop
+
+import com.uberith.api.utils.ScriptClock
+import net.botwithus.rs3.world.Coordinate
+import kotlin.math.abs
+import kotlin.math.ceil
+import kotlin.math.max
+import kotlin.math.sign
+
+/**
+ * Tracks the individual trees at the active location and picks which one to work next.
+ *
+ * [observe] is fed the tiles of the standing (choppable) trees seen around the player each tick.
+ * A known tree that drops out of that set inside the scan radius is marked depleted; when it shows
+ * up again the elapsed time becomes a respawn sample for that tree. [next] ranks every tracked tree
+ * by the expected ticks until its first log: walking ticks from the origin, plus the predicted
+ * remaining respawn time for depleted trees. When nothing is standing this points at the tree
+ * that will be back first, so the caller can walk over before it respawns.
+ *
+ * Driven from the tick thread; [metrics] may be read from the GUI.
+ */
+class TreeScheduler(
+    private val tickMs: Long = 600L,
+    private val defaultRespawnMs: Long = 45_000L,
+    private val switchMarginTicks: Int = 2
+) {
+
+    private companion object {
+        const val RESPAWN_SMOOTHING = 0.3
+    }
+
+    data class Target(
+        val tile: Coordinate,
+        val available: Boolean,
+        val expectedTicks: Int,
+        val respawnInMs: Long
+    ) {
+        /** Tile next to the tree on the side facing [anchor]; stable while [anchor] is, so paths are reused. */
+        fun approachTile(anchor: Coordinate): Coordinate =
+            Coordinate(tile.x + (anchor.x - tile.x).sign, tile.y + (anchor.y - tile.y).sign, tile.z)
+    }
+
+    data class Metrics(
+        val tracked: Int,
+        val available: Int,
+        val depletions: Long,
+        val respawnsObserved: Long,
+        val averageRespawnMs: Double
+    )
+
+    private class Tree(val tile: Coordinate) {
+        var available = true
+        var depletedAt = 0L
+        var respawnEstimateMs = -1.0
+    }
+
+    private val trees = HashMap<Coordinate, Tree>()
+    private var current: Coordinate? = null
+
+    @Volatile private var depletions = 0L
+    @Volatile private var respawnsObserved = 0L
+    @Volatile private var respawnTotalMs = 0L
+    @Volatile private var trackedCount = 0
+    @Volatile private var availableCount = 0
+
+    /** Forgets every tree and respawn sample, e.g. after the location or the target tree changes. */
+    fun reset() {
+        trees.clear()
+        current = null
+        depletions = 0L
+        respawnsObserved = 0L
+        respawnTotalMs = 0L
+        trackedCount = 0
+        availableCount = 0
+    }
+
+    /**
+     * Updates tree states from one scan. Only trees within [radius] tiles of [center] are judged,
+     * since anything further out may simply not be loaded.
+     */
+    fun observe(standing: Set<Coordinate>, center: Coordinate, radius: Int, now: Long = ScriptClock.now()) {
+        for (tile in standing) {
+            val tree = trees.getOrPut(tile) { Tree(tile) }
+            if (!tree.available) {
+                recordRespawn(tree, now - tree.depletedAt)
+                tree.available = true
+            }
+        }
+        for (tree in trees.values) {
+            if (tree.available && tree.tile !in standing && within(tree.tile, center, radius)) {
+                tree.available = false
+                tree.depletedAt = now
+                depletions++
+            }
+        }
+        trackedCount = trees.size
+        availableCount = trees.values.count { it.available }
+    }
+
+    /** Best tree to work from [origin], or null when no tree on its plane is known. */
+    fun next(origin: Coordinate?, now: Long = ScriptClock.now()): Target? {
+        if (origin == null || trees.isEmpty()) {
+            return null
+        }
+        var best: Target? = null
+        var held: Target? = null
+        for (tree in trees.values) {
+            if (tree.tile.z != origin.z) {
+                continue
+            }
+            val candidate = estimate(tree, origin, now)
+            if (tree.tile == current) {
+                held = candidate
+            }
+            if (best == null || candidate.expectedTicks < best.expectedTicks) {
+                best = candidate
+            }
+        }
+        // Stick with the previous pick unless the new one is clearly better; avoids pacing between stumps.
+        val chosen = if (held != null && best != null && held.expectedTicks <= best.expectedTicks + switchMarginTicks) held else best
+        current = chosen?.tile
+        return chosen
+    }
+
+    /**
+     * Milliseconds until the first depleted tree is expected back (0 or less when overdue), or
+     * null when a tree is standing or none is tracked. Unlike [next] it does not change the pick.
+     */
+    fun soonestRespawnMs(now: Long = ScriptClock.now()): Long? {
+        var soonest: Long? = null
+        for (tree in trees.values) {
+            if (tree.available) {
+                return null
+            }
+            val predicted = if (tree.respawnEstimateMs >= 0.0) tree.respawnEstimateMs else locationRespawnMs()
+            val remaining = predicted.toLong() - (now - tree.depletedAt)
+            if (soonest == null || remaining < soonest) {
+                soonest = remaining
+            }
+        }
+        return soonest
+    }
+
+    fun metrics(): Metrics {
+        val observed = respawnsObserved
+        return Metrics(
+            tracked = trackedCount,
+            available = availableCount,
+            depletions = depletions,
+            respawnsObserved = observed,
+            averageRespawnMs = if (observed == 0L) 0.0 else respawnTotalMs.toDouble() / observed
+        )
+    }
+
+    private fun estimate(tree: Tree, origin: Coordinate, now: Long): Target {
+        // Running covers two tiles a tick.
+        val walkTicks = ceil(chebyshev(tree.tile, origin) / 2.0).toInt()
+        if (tree.available) {
+            return Target(tree.tile, true, walkTicks, 0L)
+        }
+        val predicted = if (tree.respawnEstimateMs >= 0.0) tree.respawnEstimateMs else locationRespawnMs()
+        // Overdue trees are assumed to be back within a tick rather than right now.
+        val remaining = max(predicted.toLong() - (now - tree.depletedAt), tickMs)
+        val waitTicks = ceil(remaining.toDouble() / tickMs).toInt()
+        return Target(tree.tile, false, max(walkTicks, waitTicks), remaining)
+    }
+
+    private fun recordRespawn(tree: Tree, elapsedMs: Long) {
+        if (elapsedMs <= 0L) {
+            return
+        }
+        tree.respawnEstimateMs = if (tree.respawnEstimateMs < 0.0) {
+            elapsedMs.toDouble()
+        } else {
+            tree.respawnEstimateMs + (elapsedMs - tree.respawnEstimateMs) * RESPAWN_SMOOTHING
+        }
+        respawnTotalMs += elapsedMs
+        respawnsObserved++
+    }
+
+    /** Mean observed respawn across the location, used for trees without samples of their own. */
+    private fun locationRespawnMs(): Double {
+        val observed = respawnsObserved
+        return if (observed == 0L) defaultRespawnMs.toDouble() else respawnTotalMs.toDouble() / observed
+    }
+
+    private fun within(tile: Coordinate, center: Coordinate, radius: Int): Boolean =
+        tile.z == center.z && chebyshev(tile, center) <= radius
+
+    private fun chebyshev(a: Coordinate, b: Coordinate): Int = max(abs(a.x - b.x), abs(a.y - b.y))
+}
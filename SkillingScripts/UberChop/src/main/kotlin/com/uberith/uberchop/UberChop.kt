@@ -2,7 +2,18 @@ package com.uberith.uberchop
 
 import com.google.gson.Gson
 import com.google.gson.JsonObject
+import com.uberith.api.game.world.Coordinates
+import com.uberith.api.script.Awaits
+import com.uberith.api.script.RateEstimator
+import com.uberith.api.script.VarWatch
+import com.uberith.api.utils.CounterJournal
+import com.uberith.api.utils.ReflectiveBinder
+import com.uberith.api.utils.ScriptClock
+import com.uberith.api.script.WriteBehindSaver
 import com.uberith.uberchop.config.Settings
+import com.uberith.uberchop.config.TreeLocationIndex
+import com.uberith.uberchop.navigation.NavigationSession
+import com.uberith.uberchop.navigation.RouteCache
 import com.uberith.uberchop.config.TreeLocation
 import com.uberith.uberchop.config.TreeLocations
 import com.uberith.uberchop.config.TreeTypes
@@ -11,19 +22,21 @@ import com.uberith.uberchop.gui.UberChopGUI
 import com.uberith.uberchop.state.Banking
 import com.uberith.uberchop.state.BotState
 import com.uberith.uberchop.state.Chopping
+import com.uberith.uberchop.state.DecisionTable
 import com.uberith.uberchop.state.Fletching
+import com.uberith.uberchop.state.NodeProfiler
+import com.uberith.uberchop.state.UberChopState
 import net.botwithus.kxapi.game.inventory.Backpack
 import net.botwithus.kxapi.game.inventory.Bank
-import net.botwithus.kxapi.game.skilling.impl.fletching.FletchingProduct
 import net.botwithus.kxapi.game.skilling.impl.fletching.fletching
 import net.botwithus.kxapi.game.skilling.skilling
 import net.botwithus.kxapi.permissive.PermissiveDSL
 import net.botwithus.kxapi.permissive.PermissiveScript
 import net.botwithus.events.EventInfo
+import net.botwithus.rs3.entities.SceneObject
 import net.botwithus.rs3.inventories.events.InventoryEvent
 import net.botwithus.rs3.item.InventoryItem
 import net.botwithus.rs3.stats.Stats
-import net.botwithus.rs3.vars.VarDomain
 import net.botwithus.rs3.world.Coordinate
 import net.botwithus.scripts.Info
 import net.botwithus.ui.workspace.Workspace
@@ -34,8 +47,13 @@ import net.botwithus.kxapi.game.scene.groundItem.PickupItemPriority
 import net.botwithus.kxapi.game.scene.scene
 import botwithus.navigation.api.State as NavState
 import org.slf4j.LoggerFactory
+import java.io.File
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.regex.Pattern
+import kotlin.math.abs
 import kotlin.math.roundToInt
 
 @Info(
@@ -49,6 +67,7 @@ import kotlin.math.roundToInt
 class UberChop : PermissiveScript<BotState>(debug = false) {
     private companion object {
         private const val BACKPACK_INVENTORY_ID = 93
+        private const val BANK_INVENTORY_ID = 95
         private const val STAT_LOGS_KEY = "logs"
         private const val STAT_LOGS_PER_HOUR_KEY = "logsPerHour"
         private const val STAT_BIRD_NESTS_KEY = "birdNests"
@@ -59,9 +78,34 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
         private const val STAT_NESTS_PER_HOUR_KEY = "nestsPerHour"
         private const val RUNTIME_PERSIST_INTERVAL_MS = 60_000L
         private const val LOGS_PER_HOUR_REFRESH_MS = 5_000L
+        private val STOP_METHOD_NAMES = listOf("stop")
+        private val FLETCH_ALL_METHOD_NAMES = listOf("all", "startAll")
+        private val BANK_ITEMS_METHOD_NAMES = listOf("getItems", "items")
+        private val DEPOSIT_BACKPACK_METHOD_NAMES = listOf("depositBackpack", "depositInventory", "depositCarriedItems")
         private const val JUJU_EFFECT_DURATION_MS = 360_000L
         private const val JUJU_WITHDRAW_COUNT = 5
         private const val JUJU_WITHDRAW_RETRY_MS = 10_000L
+        // Shorter respawn waits are not worth a make-all that the next swing interrupts.
+        private const val GAP_FLETCH_MIN_WAIT_MS = 3_000L
+        private const val BACKPACK_RECONCILE_INTERVAL_MS = 15_000L
+        private const val TICK_MS = 600L
+        private const val ANYWHERE_BANK_RADIUS = 150
+        private const val TREE_SCAN_RADIUS = 20
+        // Closer than this the step leaves do not walk (bank radius 5), so a route would go unused.
+        private const val PREFETCH_MIN_DISTANCE = 5.0
+        // Full scene scans for trees run this often unless something below asks for one sooner.
+        private const val TREE_SCAN_INTERVAL_TICKS = 5
+        private const val NEST_SCAN_RADIUS = 10
+        // Same reach the pickup always had; a nest seen at the edge of the scan but out of reach
+        // is dropped by markEmpty() until the next scan.
+        private const val NEST_PICKUP_DISTANCE = 8
+        private val CHOP_OPTIONS = listOf("Chop down", "Chop", "Cut")
+        // Journal keys; lifetime totals use the LIFETIME order, queue remaining is base + entry index.
+        private val JOURNAL_LIFETIME_KEYS = intArrayOf(1, 2, 3, 4, 5)
+        private const val JOURNAL_QUEUE_SIGNATURE = 16
+        private const val JOURNAL_QUEUE_ACTIVE_INDEX = 17
+        private const val JOURNAL_QUEUE_ENABLED = 18
+        private const val JOURNAL_QUEUE_REMAINING_BASE = 32
         private val JUJU_EFFECT_VARBITS = intArrayOf(4394, 4395, 4396)
     }
 
@@ -76,27 +120,41 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
     internal val logPattern = Pattern.compile(".*logs.*", Pattern.CASE_INSENSITIVE)
     internal val birdNestPattern = Pattern.compile(".*bird['\\u2019]?s nest.*", Pattern.CASE_INSENSITIVE)
     private val birdNestRegex = Regex("(?i).*bird['\\u2019]?s nest.*")
+    // Nests near the chop tile, rescanned every few ticks instead of walking the ground list each tick.
+    private val birdNests = GroundItemIndex({ name -> birdNestRegex.matches(name) }, NEST_SCAN_RADIUS)
+    private val birdNestPickup by lazy {
+        scene.pickup {
+            global {
+                distance(NEST_PICKUP_DISTANCE)
+                itemPriority(PickupItemPriority.VERY_HIGH)
+            }
+
+            item(birdNestRegex)
+        }
+    }
     internal val jujuPotionPattern =
         Pattern.compile(".*(?:perfect\\s+)?juju\\s+woodcutting\\s+potion.*", Pattern.CASE_INSENSITIVE)
     internal val jujuVialPattern = Pattern.compile(".*juju\\s+vial.*", Pattern.CASE_INSENSITIVE)
-    private val statsLock = Any()
+    // Lock-free counters; the GUI and the save thread read consistent snapshots without blocking the tick.
+    private val stats = StatsCounters()
+    // Windowed rates for the statistics tab; the cumulative per-hour figures above react slowly after breaks.
+    internal val logRate = RateEstimator()
+    internal val nestRate = RateEstimator()
+    internal val xpRate = RateEstimator()
+    @Volatile private var lastSeenWoodcuttingXp: Int = -1
+    private val persistence = WriteBehindSaver("UberChop") { performSavePersistentData() }
+    // Crash-safe deltas between JSON saves; replayed on initialize and merged with the loaded stats.
+    private val journal = CounterJournal("UberChop")
+    private val journalLock = Any()
+    private val journaledLifetime = LongArray(JOURNAL_LIFETIME_KEYS.size)
     private val statusLogger = LoggerFactory.getLogger("${UberChop::class.java.name}.status")
-    private var lifetimeLogs: Long = 0L
-    private var lifetimeBirdNests: Long = 0L
-    private var lifetimeRuntimeMs: Long = 0L
-    private var sessionRuntimeCommittedMs: Long = 0L
-    private var lifetimeWoodcuttingXp: Long = 0L
-    private var lifetimeWoodcuttingLevels: Long = 0L
-    private var startingWoodcuttingXp: Int = 0
-    private var startingWoodcuttingLevel: Int = 0
-    private var sessionWoodcuttingXpCommitted: Int = 0
-    private var sessionWoodcuttingLevelsCommitted: Int = 0
-    private var cachedLogsPerHour: Int = 0
-    private var nextLogsPerHourUpdateAt: Long = 0L
-    private var lastLogsPerHourLogs: Int = 0
-    private var cachedWoodcuttingXpPerHour: Int = 0
-    private var nextXpPerHourUpdateAt: Long = 0L
-    private var lastWoodcuttingXp: Int = 0
+    // Per-hour display cache; written by whichever thread asks first, a lost race only recomputes.
+    @Volatile private var cachedLogsPerHour: Int = 0
+    @Volatile private var nextLogsPerHourUpdateAt: Long = 0L
+    @Volatile private var lastLogsPerHourLogs: Long = 0L
+    @Volatile private var cachedWoodcuttingXpPerHour: Int = 0
+    @Volatile private var nextXpPerHourUpdateAt: Long = 0L
+    @Volatile private var lastWoodcuttingXp: Int = 0
     val woodBoxPattern: Pattern = Pattern.compile(".*wood box.*", Pattern.CASE_INSENSITIVE)
     internal enum class LogHandling {
         BANK,
@@ -114,8 +172,23 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
         get() = settings.withdrawWoodBox && logHandlingPreference == LogHandling.BANK
     // Simple guard to avoid spamming movement requests while one is "in flight".
     internal val movementGate = AtomicBoolean(false)
+    internal val routeCache = RouteCache()
+    @Volatile internal var locationIndex: TreeLocationIndex = TreeLocationIndex.DEFAULT
+        private set
+    internal val navigation = NavigationSession(routeCache)
+    // Per-tree availability at the active spot; StartChopping asks it which tree to work next.
+    internal val treeScheduler = TreeScheduler()
+    private var visibleTrees: Map<Coordinate, SceneObject> = emptyMap()
+    private var treeScanRegion = Int.MIN_VALUE
+    private var ticksUntilTreeScan = 0
+    private var treeScanAnimationId = -1
+    @Volatile private var treeScans = 0L
+    @Volatile private var treeScanSkips = 0L
+    // Per-node timings for the state tables; off unless toggled from the Debug tab.
+    internal val nodeProfiler = NodeProfiler()
+    // Leaves wait on these instead of fixed delays; inventory changes are counted in onInventoryEvent.
+    internal val awaits = Awaits({ ticks, condition -> delayUntil(condition, ticks) })
     private val navigationCooldownMs = 1_000L
-    private val navigationInProgressRetryMs = 3_000L
     private val navigationFailureRetryMs = 2_000L
     private var nextNavigationAllowedAt: Long = 0L
     private val gui by lazy { UberChopGUI(this) }
@@ -123,8 +196,19 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
     private var nextWoodBoxWithdrawTimeMs: Long = 0L
     internal var woodBoxWithdrawAttempted = false
     internal var woodBoxWithdrawSucceeded = false
+    private val bankVisits = BankVisitStats()
+    private var bankVisitStartedAt: Long = 0L
     private var nextFletchAttemptAllowedAt: Long = 0L
+    /** True while the Fletching state is filling a respawn gap rather than emptying a full backpack. */
+    internal var fletchingInGap = false
+        private set
+    private var gapFletchSessions = 0L
     private var jujuEffectExpiresAt: Long = 0L
+    // Juju varbits are read in the per-tick batch and parked until the local expiry while it is known.
+    private val vars = VarWatch().apply {
+        watchVarbits(JUJU_EFFECT_VARBITS) { _, _, _ -> onJujuVarbitsChanged() }
+    }
+    @Volatile private var jujuVarbitActive = false
     private var lastJujuDrinkAttemptAt: Long = 0L
     private var jujuWithdrawRetryAt: Long = 0L
     private enum class JujuRestockMode {
@@ -138,14 +222,21 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
 
     private var mode: BotState = BotState.CHOPPING
     private var statusText: String = "Starting up"
-    private var accumulatedRuntimeMs: Long = 0L
-    private var activeRuntimeStartMs: Long = 0L
-    private var nextRuntimePersistAt: Long = 0L
+    @Volatile private var nextRuntimePersistAt: Long = 0L
     private var lastStatusLogMessage: String = ""
     private var lastStatusLogAt: Long = 0L
     private val statusLogCooldownMs: Long = 5_000L
     private var uiSettingsLoaded = false
     internal var chopWorkedLastTick = false
+    private val fletchingRecipes = FletchingRecipeTable()
+    internal val itemClassifier = ItemClassifier { name -> fletchingRecipes.resolve(name) != null }
+    internal val backpackModel = BackpackModel(itemClassifier)
+    private val depositPlanner = DepositPlanner(itemClassifier)
+    internal val bankIndex = BankIndex(itemClassifier)
+    private var bankIndexSavedVersion = 0L
+    // Sensed state captured once per tick; branch conditions read this instead of the client.
+    internal val snapshot = TickSnapshot(backpackModel)
+    @Volatile private var nextBackpackReconcileAt: Long = 0L
     private val stateInstances = mutableMapOf<BotState, PermissiveDSL<*>>()
     private var statesInitialized = false
     private val queueLock = Any()
@@ -159,10 +250,10 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
     var treeTile: Coordinate? = null
     var bankTile: Coordinate? = null
 
-    @Volatile var logsChopped: Int = 0
-        private set
-    @Volatile var birdNestsCollected: Int = 0
-        private set
+    val logsChopped: Int
+        get() = stats.snapshot().sessionLogs.toInt()
+    val birdNestsCollected: Int
+        get() = stats.snapshot().sessionNests.toInt()
     val treeLocations: List<TreeLocation>
         get() = TreeLocations.ALL
     val WCLevel: Int
@@ -247,7 +338,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
                 settings.queueActiveIndex = 0
             }
         }
-        performSavePersistentData()
+        requestSave()
     }
 
     fun removeQueueEntry(index: Int) {
@@ -273,7 +364,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
                 queueActiveEntryIndex = -1
             }
         }
-        performSavePersistentData()
+        requestSave()
         if (removedActive) {
             handleQueueState()
         }
@@ -310,7 +401,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
         if (!moved) {
             return
         }
-        performSavePersistentData()
+        requestSave()
         if (shouldReactivate) {
             queueActiveEntryIndex = -1
             handleQueueState()
@@ -322,7 +413,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
             val entry = queueEntries().getOrNull(index) ?: return
             entry.remaining = if (entry.goal > 0) entry.goal else 0
         }
-        performSavePersistentData()
+        requestSave()
     }
 
     fun resetEntireQueueProgress() {
@@ -336,7 +427,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
             queueActiveEntryIndex = -1
             pendingQueueStop = false
         }
-        performSavePersistentData()
+        requestSave()
     }
 
     fun startQueueAt(index: Int, resetRemaining: Boolean) {
@@ -355,7 +446,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
             queueActiveEntryIndex = -1
             activate = settings.queueEnabled
         }
-        performSavePersistentData()
+        requestSave()
         if (activate) {
             handleQueueState()
         }
@@ -381,7 +472,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
                 activate = true
             }
         }
-        performSavePersistentData()
+        requestSave()
         if (activate) {
             queueActiveEntryIndex = -1
             handleQueueState()
@@ -487,7 +578,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
             updateQueueStatus(progress)
             val shouldPersist = completed || (progress.goal > 0 && progress.remaining % 25 == 0)
             if (shouldPersist) {
-                performSavePersistentData()
+                requestSave()
             }
         }
         if (completed) {
@@ -516,7 +607,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
                 queueFinished = true
             }
         }
-        performSavePersistentData()
+        requestSave()
         if (queueFinished) {
             onQueueCompleted()
         } else {
@@ -532,7 +623,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
     }
 
     private fun updateQueueStatus(progress: QueueProgress, force: Boolean = false) {
-        val now = System.currentTimeMillis()
+        val now = ScriptClock.now()
         if (!force && now - lastQueueStatusAt < queueStatusThrottleMs) {
             return
         }
@@ -545,14 +636,14 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
             return
         }
         pendingQueueStop = false
-        val methods = this::class.java.methods
-        val stopWithReason = methods.firstOrNull { it.name.equals("stop", ignoreCase = true) && it.parameterCount == 1 && it.parameterTypes[0] == String::class.java }
+        val scriptClass = this::class.java
+        val stopWithReason = ReflectiveBinder.method(scriptClass, STOP_METHOD_NAMES, listOf(String::class.java), ignoreCase = true)
         if (stopWithReason != null) {
             runCatching { stopWithReason.invoke(this, "Queue complete") }
                 .onFailure { warn("Queue complete; failed to auto-stop script: ${it.message}") }
             return
         }
-        val stopNoArg = methods.firstOrNull { it.name.equals("stop", ignoreCase = true) && it.parameterCount == 0 }
+        val stopNoArg = ReflectiveBinder.method(scriptClass, STOP_METHOD_NAMES, ignoreCase = true)
         if (stopNoArg != null) {
             runCatching { stopNoArg.invoke(this) }
                 .onFailure { warn("Queue complete; failed to auto-stop script: ${it.message}") }
@@ -581,6 +672,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
     override fun onInitialize() {
         configureLogging()
         super.onInitialize()
+        restoreFromJournal()
         resetRuntimeStatistics()
         runCatching { gui.preload() }
 
@@ -611,84 +703,59 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
         jujuRestockMode = JujuRestockMode.IDLE
         jujuWithdrawRetryAt = 0L
         jujuEffectExpiresAt = 0L
+        jujuVarbitActive = false
+        vars.deferVarbits(JUJU_EFFECT_VARBITS, 0L)
         lastJujuDrinkAttemptAt = 0L
+        // Whatever the box held before this run is unknown until it is next emptied at the bank.
+        Equipment.woodBox.reset()
+        // onDeactivation closes the journal and the saver; reopen them when the same instance is started again.
+        persistence.start()
+        if (!journal.isOpen) {
+            restoreFromJournal()
+        }
         super.onActivation()
-        synchronized(statsLock) {
-            if (activeRuntimeStartMs == 0L) {
-                activeRuntimeStartMs = System.currentTimeMillis()
-                nextRuntimePersistAt = 0L
-            }
+        if (stats.startRuntime(ScriptClock.now())) {
+            nextRuntimePersistAt = 0L
         }
     }
 
     override fun onDeactivation() {
-        synchronized(statsLock) {
-            if (activeRuntimeStartMs != 0L) {
-                accumulatedRuntimeMs += System.currentTimeMillis() - activeRuntimeStartMs
-                activeRuntimeStartMs = 0L
-            }
-            nextRuntimePersistAt = 0L
-        }
-        persistStats()
+        stats.stopRuntime(ScriptClock.now())
+        nextRuntimePersistAt = 0L
+        bankVisitStartedAt = 0L
+        commitSessionTotals()
+        journalLifetimeTotals()
+        // Releases the file lock and the flush thread so a reloaded instance can take the journal over.
+        runCatching { journal.close() }.onFailure { log.warn("Failed to close stats journal", it) }
+        routeCache.close()
+        // Saves anything still pending, then stops the write-behind thread until the next activation.
+        persistence.close()
         super.onDeactivation()
     }
 
     private fun resetRuntimeStatistics() {
-        synchronized(statsLock) {
-            logsChopped = 0
-            birdNestsCollected = 0
-            accumulatedRuntimeMs = 0L
-            activeRuntimeStartMs = 0L
-            nextRuntimePersistAt = 0L
-            sessionRuntimeCommittedMs = 0L
-            startingWoodcuttingXp = Stats.WOODCUTTING.xp
-            startingWoodcuttingLevel = Stats.WOODCUTTING.level
-            sessionWoodcuttingXpCommitted = 0
-            sessionWoodcuttingLevelsCommitted = 0
-            cachedLogsPerHour = 0
-            nextLogsPerHourUpdateAt = 0L
-            lastLogsPerHourLogs = 0
-            cachedWoodcuttingXpPerHour = 0
-            nextXpPerHourUpdateAt = 0L
-            lastWoodcuttingXp = 0
-        }
+        stats.resetSession(Stats.WOODCUTTING.xp, Stats.WOODCUTTING.level)
+        val now = ScriptClock.now()
+        logRate.reset(now)
+        nestRate.reset(now)
+        xpRate.reset(now)
+        lastSeenWoodcuttingXp = -1
+        nextRuntimePersistAt = 0L
+        cachedLogsPerHour = 0
+        nextLogsPerHourUpdateAt = 0L
+        lastLogsPerHourLogs = 0L
+        cachedWoodcuttingXpPerHour = 0
+        nextXpPerHourUpdateAt = 0L
+        lastWoodcuttingXp = 0
         nextFletchAttemptAllowedAt = 0L
         persistStats()
     }
 
     private fun currentRuntimeMillis(): Long =
-        synchronized(statsLock) { currentRuntimeMillisLocked(System.currentTimeMillis()) }
-
-    private fun currentRuntimeMillisLocked(now: Long): Long {
-        val accumulated = accumulatedRuntimeMs
-        val activeStart = activeRuntimeStartMs
-        return if (activeStart != 0L) accumulated + (now - activeStart) else accumulated
-    }
+        stats.snapshot().runtimeMillis(ScriptClock.now())
 
     private fun commitSessionTotals() {
-        val now = System.currentTimeMillis()
-        synchronized(statsLock) {
-            val sessionRuntime = currentRuntimeMillisLocked(now)
-            val runtimeDelta = sessionRuntime - sessionRuntimeCommittedMs
-            if (runtimeDelta > 0) {
-                lifetimeRuntimeMs += runtimeDelta
-                sessionRuntimeCommittedMs += runtimeDelta
-            }
-
-            val sessionXp = (Stats.WOODCUTTING.xp - startingWoodcuttingXp).coerceAtLeast(0)
-            val xpDelta = sessionXp - sessionWoodcuttingXpCommitted
-            if (xpDelta > 0) {
-                lifetimeWoodcuttingXp += xpDelta.toLong()
-                sessionWoodcuttingXpCommitted += xpDelta
-            }
-
-            val sessionLevels = (Stats.WOODCUTTING.level - startingWoodcuttingLevel).coerceAtLeast(0)
-            val levelDelta = sessionLevels - sessionWoodcuttingLevelsCommitted
-            if (levelDelta > 0) {
-                lifetimeWoodcuttingLevels += levelDelta.toLong()
-                sessionWoodcuttingLevelsCommitted += levelDelta
-            }
-        }
+        stats.commitSession(ScriptClock.now(), Stats.WOODCUTTING.xp, Stats.WOODCUTTING.level)
     }
 
     private fun calculatePerHour(count: Long, runtimeMs: Long): Int {
@@ -697,71 +764,67 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
     }
 
     fun logsPerHour(): Int {
-        val now = System.currentTimeMillis()
-        return synchronized(statsLock) {
-            val runtimeSnapshot = currentRuntimeMillisLocked(now)
-            if (runtimeSnapshot <= 0L) {
-                cachedLogsPerHour = 0
-                nextLogsPerHourUpdateAt = now + LOGS_PER_HOUR_REFRESH_MS
-                lastLogsPerHourLogs = logsChopped
-                return@synchronized 0
-            }
+        val now = ScriptClock.now()
+        val counters = stats.snapshot()
+        val runtimeSnapshot = counters.runtimeMillis(now)
+        if (runtimeSnapshot <= 0L) {
+            cachedLogsPerHour = 0
+            nextLogsPerHourUpdateAt = now + LOGS_PER_HOUR_REFRESH_MS
+            lastLogsPerHourLogs = counters.sessionLogs
+            return 0
+        }
 
-            if (now >= nextLogsPerHourUpdateAt || logsChopped != lastLogsPerHourLogs) {
-                cachedLogsPerHour = calculatePerHour(logsChopped.toLong(), runtimeSnapshot)
-                nextLogsPerHourUpdateAt = now + LOGS_PER_HOUR_REFRESH_MS
-                lastLogsPerHourLogs = logsChopped
-            }
-            val currentXp = woodcuttingXpGained()
-            if (now >= nextXpPerHourUpdateAt || currentXp != lastWoodcuttingXp) {
-                cachedWoodcuttingXpPerHour = calculatePerHour(currentXp.toLong(), runtimeSnapshot)
-                nextXpPerHourUpdateAt = now + LOGS_PER_HOUR_REFRESH_MS
-                lastWoodcuttingXp = currentXp
-            }
-            cachedLogsPerHour
+        if (now >= nextLogsPerHourUpdateAt || counters.sessionLogs != lastLogsPerHourLogs) {
+            cachedLogsPerHour = calculatePerHour(counters.sessionLogs, runtimeSnapshot)
+            nextLogsPerHourUpdateAt = now + LOGS_PER_HOUR_REFRESH_MS
+            lastLogsPerHourLogs = counters.sessionLogs
         }
+        val currentXp = (Stats.WOODCUTTING.xp - counters.startingXp).coerceAtLeast(0)
+        if (now >= nextXpPerHourUpdateAt || currentXp != lastWoodcuttingXp) {
+            cachedWoodcuttingXpPerHour = calculatePerHour(currentXp.toLong(), runtimeSnapshot)
+            nextXpPerHourUpdateAt = now + LOGS_PER_HOUR_REFRESH_MS
+            lastWoodcuttingXp = currentXp
+        }
+        return cachedLogsPerHour
     }
 
     fun birdNestsPerHour(): Int {
-        val runtime = currentRuntimeMillis()
+        val counters = stats.snapshot()
+        val runtime = counters.runtimeMillis(ScriptClock.now())
         if (runtime <= 0L) return 0
-        return calculatePerHour(birdNestsCollected.toLong(), runtime)
+        return calculatePerHour(counters.sessionNests, runtime)
     }
 
     fun woodcuttingXpGained(): Int =
-        (Stats.WOODCUTTING.xp - startingWoodcuttingXp).coerceAtLeast(0)
+        (Stats.WOODCUTTING.xp - stats.snapshot().startingXp).coerceAtLeast(0)
 
     fun woodcuttingLevelsGained(): Int =
-        (Stats.WOODCUTTING.level - startingWoodcuttingLevel).coerceAtLeast(0)
+        (Stats.WOODCUTTING.level - stats.snapshot().startingLevel).coerceAtLeast(0)
 
-    fun woodcuttingXpPerHour(): Int = synchronized(statsLock) { cachedWoodcuttingXpPerHour }
+    fun woodcuttingXpPerHour(): Int = cachedWoodcuttingXpPerHour
 
-    fun lifetimeLogsPerHour(): Int = calculatePerHour(lifetimeLogs, lifetimeRuntimeMs)
+    fun lifetimeLogsPerHour(): Int = stats.snapshot().let { calculatePerHour(it.lifetimeLogs, it.lifetimeRuntimeMs) }
 
-    fun lifetimeBirdNestsPerHour(): Int = calculatePerHour(lifetimeBirdNests, lifetimeRuntimeMs)
+    fun lifetimeBirdNestsPerHour(): Int = stats.snapshot().let { calculatePerHour(it.lifetimeNests, it.lifetimeRuntimeMs) }
 
-    fun lifetimeWoodcuttingXpPerHour(): Int = calculatePerHour(lifetimeWoodcuttingXp, lifetimeRuntimeMs)
+    fun lifetimeWoodcuttingXpPerHour(): Int = stats.snapshot().let { calculatePerHour(it.lifetimeXp, it.lifetimeRuntimeMs) }
 
-    fun lifetimeWoodcuttingXpGained(): Long =
-        synchronized(statsLock) { lifetimeWoodcuttingXp }
+    fun lifetimeWoodcuttingXpGained(): Long = stats.snapshot().lifetimeXp
 
-    fun lifetimeWoodcuttingLevelsGained(): Long =
-        synchronized(statsLock) { lifetimeWoodcuttingLevels }
+    fun lifetimeWoodcuttingLevelsGained(): Long = stats.snapshot().lifetimeLevels
 
-    fun lifetimeLogsChopped(): Long = synchronized(statsLock) { lifetimeLogs }
+    fun lifetimeLogsChopped(): Long = stats.snapshot().lifetimeLogs
 
-    fun lifetimeBirdNestsCollected(): Long = synchronized(statsLock) { lifetimeBirdNests }
+    fun lifetimeBirdNestsCollected(): Long = stats.snapshot().lifetimeNests
 
-    fun lifetimeRuntimeMillis(): Long = synchronized(statsLock) { lifetimeRuntimeMs }
+    fun lifetimeRuntimeMillis(): Long = stats.snapshot().lifetimeRuntimeMs
 
     private fun setLoggerLevel(loggerName: String, levelName: String) {
         val logger = LoggerFactory.getLogger(loggerName)
         try {
-            val levelClass = Class.forName("ch.qos.logback.classic.Level")
-            val toLevel = levelClass.getMethod("toLevel", String::class.java)
-            val levelInstance = toLevel.invoke(null, levelName)
-            val setLevel = logger.javaClass.getMethod("setLevel", levelClass)
-            setLevel.invoke(logger, levelInstance)
+            val levelClass = ReflectiveBinder.classForName("ch.qos.logback.classic.Level") ?: return
+            val levelInstance = ReflectiveBinder.method(levelClass, "toLevel", String::class.java)?.invoke(null, levelName) ?: return
+            ReflectiveBinder.method(logger.javaClass, "setLevel", levelClass)?.invoke(logger, levelInstance)
         } catch (_: Throwable) {
             // Logging backend not available or does not support dynamic level changes.
         }
@@ -778,7 +841,7 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
     }
 
     private fun logStatus(message: String, force: Boolean = false) {
-        val now = System.currentTimeMillis()
+        val now = ScriptClock.now()
         val shouldLog = force || message != lastStatusLogMessage || (now - lastStatusLogAt) >= statusLogCooldownMs
         if (shouldLog) {
             statusLogger.info(message)
@@ -788,24 +851,113 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
     }
 
     private fun persistStats() {
-        commitSessionTotals()
-        performSavePersistentData()
+        requestSave()
     }
 
+    // Saves run on the write-behind thread; the tick and event threads only mark state dirty.
+    // The journal is appended first so a crash before the coalesced save loses nothing.
+    private fun requestSave() {
+        journalLifetimeTotals()
+        journalQueueProgress()
+        persistence.markDirty()
+    }
+
+    fun journalMetrics(): CounterJournal.Metrics = journal.metrics()
+
+    private fun restoreFromJournal() {
+        runCatching { journal.open() }
+            .onFailure { error -> log.warn("Failed to open stats journal; continuing with saved stats only", error) }
+            .onSuccess { mergeJournal() }
+    }
+
+    /** Brings loaded stats and queue progress up to the journal, then rebases the journal on the result. */
+    private fun mergeJournal() {
+        if (!journal.isOpen) {
+            return
+        }
+        synchronized(journalLock) {
+            val current = lifetimeTotals(stats.snapshot())
+            val merged = LongArray(current.size) { index ->
+                maxOf(current[index], journal.value(JOURNAL_LIFETIME_KEYS[index]) ?: 0L)
+            }
+            stats.loadLifetime(merged[0], merged[1], merged[2], merged[3], merged[4])
+            for (index in merged.indices) {
+                journal.set(JOURNAL_LIFETIME_KEYS[index], merged[index])
+                journaledLifetime[index] = merged[index]
+            }
+        }
+        synchronized(queueLock) {
+            // Progress only applies to the queue it was recorded against.
+            if (journal.value(JOURNAL_QUEUE_SIGNATURE) == queueSignatureLocked()) {
+                queueEntries().forEachIndexed { index, entry ->
+                    journal.value(JOURNAL_QUEUE_REMAINING_BASE + index)?.let { entry.remaining = it.toInt() }
+                }
+                journal.value(JOURNAL_QUEUE_ACTIVE_INDEX)?.let { settings.queueActiveIndex = it.toInt() }
+                journal.value(JOURNAL_QUEUE_ENABLED)?.let { settings.queueEnabled = it != 0L }
+            }
+        }
+        journalQueueProgress()
+    }
+
+    private fun lifetimeTotals(counters: StatsCounters.Snapshot): LongArray = longArrayOf(
+        counters.lifetimeLogs,
+        counters.lifetimeNests,
+        counters.lifetimeRuntimeMs,
+        counters.lifetimeXp,
+        counters.lifetimeLevels
+    )
+
+    private fun journalLifetimeTotals() {
+        if (!journal.isOpen) {
+            return
+        }
+        synchronized(journalLock) {
+            val totals = lifetimeTotals(stats.snapshot())
+            for (index in totals.indices) {
+                val delta = totals[index] - journaledLifetime[index]
+                if (delta != 0L) {
+                    journal.add(JOURNAL_LIFETIME_KEYS[index], delta)
+                    journaledLifetime[index] = totals[index]
+                }
+            }
+        }
+    }
+
+    private fun journalQueueProgress() {
+        if (!journal.isOpen) {
+            return
+        }
+        synchronized(queueLock) {
+            // set() skips unchanged values, so only the entries that moved cost bytes.
+            journal.set(JOURNAL_QUEUE_SIGNATURE, queueSignatureLocked())
+            journal.set(JOURNAL_QUEUE_ACTIVE_INDEX, settings.queueActiveIndex.toLong())
+            journal.set(JOURNAL_QUEUE_ENABLED, if (settings.queueEnabled) 1L else 0L)
+            queueEntries().forEachIndexed { index, entry ->
+                journal.set(JOURNAL_QUEUE_REMAINING_BASE + index, entry.remaining.toLong())
+            }
+        }
+    }
+
+    private fun queueSignatureLocked(): Long {
+        var hash = 17L
+        for (entry in queueEntries()) {
+            hash = hash * 31 + entry.treeDisplayName.hashCode()
+            hash = hash * 31 + entry.location.hashCode()
+            hash = hash * 31 + entry.goal
+        }
+        return hash
+    }
+
+    fun persistenceMetrics(): WriteBehindSaver.Metrics = persistence.metrics()
+
     private fun maybePersistRuntime() {
         commitSessionTotals()
         logsPerHour()
-        val now = System.currentTimeMillis()
-        val shouldPersist = synchronized(statsLock) {
-            if (activeRuntimeStartMs == 0L) {
-                return@synchronized false
-            }
-            if (nextRuntimePersistAt == 0L || now >= nextRuntimePersistAt) {
-                nextRuntimePersistAt = now + RUNTIME_PERSIST_INTERVAL_MS
-                true
-            } else {
-                false
-            }
+        val now = ScriptClock.now()
+        val shouldPersist = stats.snapshot().isRunning &&
+            (nextRuntimePersistAt == 0L || now >= nextRuntimePersistAt)
+        if (shouldPersist) {
+            nextRuntimePersistAt = now + RUNTIME_PERSIST_INTERVAL_MS
         }
         if (shouldPersist) {
             persistStats()
@@ -816,16 +968,124 @@ class UberChop : PermissiveScript<BotState>(debug = false) {
         if (!uiSettingsLoaded) {
             ensureUiSettingsLoaded()
         }
+        snapshot.capture()
+        maybeReconcileBackpack()
         ensureJujuRestockBootstrap()
         maybePersistRuntime()
+        journalLifetimeTotals()
+        recordXpRate()
+        if (settings.useJujuPotions) {
+            vars.poll()
+        }
+        if (mode == BotState.CHOPPING || fletchingInGap) {
+            maybeObserveTrees()
+            if (settings.pickupNests) {
+                runCatching { birdNests.tick(treeTile, snapshot.playerCoordinate) }
+                    .onFailure { error -> log.debug("Bird nest scan failed: {}", error.message) }
+            }
+        }
 
         return super.onPreTick()
     }
 
+    private fun recordXpRate() {
+        val xp = Stats.WOODCUTTING.xp
+        val previous = lastSeenWoodcuttingXp
+        lastSeenWoodcuttingXp = xp
+        if (previous >= 0 && xp > previous) {
+            xpRate.record((xp - previous).toLong())
+        }
+    }
+
+    /**
+     * Runs [observeTrees] only when the trees may have changed. That means a region change, a swing
+     * that just ended (the tree may have fallen), [invalidateTreeScan], or a respawn due within two
+     * ticks. Otherwise it scans every [TREE_SCAN_INTERVAL_TICKS] ticks.
+     */
+    private fun maybeObserveTrees() {
+        val player = snapshot.playerCoordinate ?: return
+        val region = player.regionId
+        val animation = snapshot.animationId
+        val swingEnded = treeScanAnimationId != -1 && animation == -1
+        treeScanAnimationId = animation
+        val respawnDue = treeScheduler.soonestRespawnMs()?.let { it <= 2 * TICK_MS } ?: false
+        if (region != treeScanRegion || swingEnded || respawnDue || --ticksUntilTreeScan <= 0) {
+            treeScanRegion = region
+            ticksUntilTreeScan = TREE_SCAN_INTERVAL_TICKS
+            treeScans++
+            observeTrees()
+        } else {
+            treeScanSkips++
+        }
+    }
+
+    /** Forces a tree scan on the next tick, e.g. after a chop on a scanned tree was refused. */
+    internal fun invalidateTreeScan() {
+        ticksUntilTreeScan = 0
+    }
+
+    fun treeScanCounts(): Pair<Long, Long> = treeScans to treeScanSkips
+
+    private fun observeTrees() {
+        val origin = snapshot.playerCoordinate ?: return
+        val treeName = targetTree.ifBlank { "Tree" }
+        val standing = runCatching {
+            World.getSceneObjects()
+                .asSequence()
+                .filter { it.name.equals(treeName, ignoreCase = true) && !it.isHidden }
+                .mapNotNull { tree -> tree.coordinate?.let { it to tree } }
+                .filter { (tile, _) -> tile.z == origin.z && maxOf(abs(tile.x - origin.x), abs(tile.y - origin.y)) <= TREE_SCAN_RADIUS }
+                .toMap()
+        }.onFailure { error ->
+            log.debug("Tree scan failed: {}", error.message)
+        }.getOrNull() ?: return
+        visibleTrees = standing
+        treeScheduler.observe(standing.keys, origin, TREE_SCAN_RADIUS)
+    }
+
+    /** Interacts with the standing tree at [tile] from the last scan; false when it is gone or refused. */
+    internal fun chopTreeAt(tile: Coordinate): Boolean {
+        val tree = visibleTrees[tile] ?: return false
+        val chopped = CHOP_OPTIONS.any { option ->
+            runCatching { tree.interact(option) }
+                .onFailure { error -> log.debug("Chop '{}' at {} failed: {}", option, tile, error.message) }
+                .getOrDefault(false)
+        }
+        if (!chopped) {
+            invalidateTreeScan()
+        }
+        return chopped
+    }
+
+    fun treeSchedulerMetrics(): TreeScheduler.Metrics = treeScheduler.metrics()
+
+    fun birdNestIndexMetrics(): GroundItemIndex.Metrics = birdNests.metrics()
+
+    private fun maybeReconcileBackpack() {
+        val now = ScriptClock.now()
+        if (backpackModel.initialized && now < nextBackpackReconcileAt) {
+            return
+        }
+        nextBackpackReconcileAt = now + BACKPACK_RECONCILE_INTERVAL_MS
+        val live = runCatching { Backpack.getItems() }
+            .onFailure { error -> log.debug("Backpack reconcile: getItems failed ${error.message}") }
+            .getOrNull() ?: return
+        if (backpackModel.reconcile(live) && backpackModel.mismatches > 0) {
+            log.debug("Backpack reconcile: model drifted from live inventory (total mismatches {})", backpackModel.mismatches)
+        }
+    }
+
+    fun backpackModelMismatches(): Long = backpackModel.mismatches
+
+    fun backpackModelReconciliations(): Long = backpackModel.reconciliations
+
+    fun backpackFreeSlots(): Int = backpackModel.freeSlots
+
 override fun savePersistentData(container: JsonObject?) {
     commitSessionTotals()
     val target = container ?: return
-    val settingsObj = gson.toJsonTree(settings).asJsonObject
+    // Serialized off the tick thread, so keep queue edits from the GUI out while Gson walks it.
+    val settingsObj = synchronized(queueLock) { gson.toJsonTree(settings).asJsonObject }
     settingsObj.addProperty("targetTree", targetTree)
     settingsObj.addProperty("location", location)
     target.add("settings", settingsObj)
@@ -846,28 +1106,28 @@ override fun savePersistentData(container: JsonObject?) {
         val levels: Long
     )
 
-    val now = System.currentTimeMillis()
+    val now = ScriptClock.now()
     val sessionSnapshot: SessionSnapshot
     val lifetimeSnapshot: LifetimeSnapshot
-    synchronized(statsLock) {
-        val runtimeMs = currentRuntimeMillisLocked(now)
-        val sessionXp = (Stats.WOODCUTTING.xp - startingWoodcuttingXp).coerceAtLeast(0)
-        val sessionLevels = (Stats.WOODCUTTING.level - startingWoodcuttingLevel).coerceAtLeast(0)
-        sessionSnapshot = SessionSnapshot(
-            logsChopped,
-            birdNestsCollected,
-            runtimeMs,
-            sessionXp,
-            sessionLevels
-        )
-        lifetimeSnapshot = LifetimeSnapshot(
-            lifetimeLogs,
-            lifetimeBirdNests,
-            lifetimeRuntimeMs,
-            lifetimeWoodcuttingXp,
-            lifetimeWoodcuttingLevels
-        )
-    }
+    // One read gives session and lifetime values from the same counter version.
+    val counters = stats.snapshot()
+    val runtimeMs = counters.runtimeMillis(now)
+    val sessionXp = (Stats.WOODCUTTING.xp - counters.startingXp).coerceAtLeast(0)
+    val sessionLevels = (Stats.WOODCUTTING.level - counters.startingLevel).coerceAtLeast(0)
+    sessionSnapshot = SessionSnapshot(
+        counters.sessionLogs.toInt(),
+        counters.sessionNests.toInt(),
+        runtimeMs,
+        sessionXp,
+        sessionLevels
+    )
+    lifetimeSnapshot = LifetimeSnapshot(
+        counters.lifetimeLogs,
+        counters.lifetimeNests,
+        counters.lifetimeRuntimeMs,
+        counters.lifetimeXp,
+        counters.lifetimeLevels
+    )
 
 val sessionLogsPerHour = calculatePerHour(sessionSnapshot.logs.toLong(), sessionSnapshot.runtimeMs)
 val sessionNestsPerHour = calculatePerHour(sessionSnapshot.nests.toLong(), sessionSnapshot.runtimeMs)
@@ -899,6 +1159,7 @@ val statsObject = JsonObject().apply {
     })
 }
     target.add("stats", statsObject)
+    target.add("bankIndex", bankIndex.toJson())
 }
 
     override fun loadPersistentData(container: JsonObject?) {
@@ -912,16 +1173,22 @@ val statsObject = JsonObject().apply {
     source.get("targetTree")?.asString?.let { targetTree = it }
     source.get("location")?.asString?.let { location = it }
 
-    source.getAsJsonObject("stats")?.let { stats ->
-        val overall = stats.getAsJsonObject("overall") ?: stats
-        synchronized(statsLock) {
-            lifetimeLogs = overall.get(STAT_LOGS_KEY)?.asLong ?: lifetimeLogs
-            lifetimeBirdNests = overall.get(STAT_BIRD_NESTS_KEY)?.asLong ?: lifetimeBirdNests
-            lifetimeRuntimeMs = overall.get(STAT_RUNTIME_KEY)?.asLong ?: lifetimeRuntimeMs
-            lifetimeWoodcuttingXp = overall.get(STAT_XP_KEY)?.asLong ?: lifetimeWoodcuttingXp
-            lifetimeWoodcuttingLevels = overall.get(STAT_LEVELS_KEY)?.asLong ?: lifetimeWoodcuttingLevels
-        }
+    source.getAsJsonObject("stats")?.let { statsObject ->
+        val overall = statsObject.getAsJsonObject("overall") ?: statsObject
+        stats.loadLifetime(
+            logs = overall.get(STAT_LOGS_KEY)?.asLong,
+            nests = overall.get(STAT_BIRD_NESTS_KEY)?.asLong,
+            runtimeMs = overall.get(STAT_RUNTIME_KEY)?.asLong,
+            xp = overall.get(STAT_XP_KEY)?.asLong,
+            levels = overall.get(STAT_LEVELS_KEY)?.asLong
+        )
     }
+    mergeJournal()
+    source.getAsJsonObject("bankIndex")?.let {
+        runCatching { bankIndex.restore(it) }
+            .onFailure { error -> log.warn("Failed to restore bank index", error) }
+    }
+    bankIndexSavedVersion = bankIndex.version
 
     uiSettingsLoaded = false
 }
@@ -944,9 +1211,19 @@ val statsObject = JsonObject().apply {
         }
 
         val stateName = stateInstances[next]?.name ?: next.description
+        val previous = mode
         setCurrentState(stateName)
         mode = next
         chopWorkedLastTick = false
+        fletchingInGap = false
+        // Banking records its visit before leaving; anything still open here was abandoned.
+        bankVisitStartedAt = 0L
+        navigation.cancel()
+        // The player is at one end of the trip; warm the outbound leg before the step leaf asks for it.
+        // Fletching happens where the player stands, so switching to or from it starts no trip.
+        if (previous != BotState.FLETCHING && next != BotState.FLETCHING) {
+            prefetchRoutes()
+        }
         logEvent("State -> ${next.description}: $reason")
         updateStatus("${next.description}: $reason")
     }
@@ -988,97 +1265,155 @@ val statsObject = JsonObject().apply {
         setCurrentState(mode.description)
     }
 
+    var nodeProfilingEnabled: Boolean
+        get() = nodeProfiler.enabled
+        set(value) {
+            nodeProfiler.enabled = value
+        }
+
+    fun nodeProfileRows(): List<NodeProfiler.Row> = nodeProfiler.rows()
+
+    fun resetNodeProfile() = nodeProfiler.reset()
+
+    /** Writes the node profile next to the stats files and returns the file. */
+    fun exportNodeProfile(): File {
+        val stamp = SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(Date())
+        val directory = File(System.getProperty("user.home"), ".BotWithUs/uberith/stats")
+        return nodeProfiler.exportCsv(File(directory, "UberChop-nodes-$stamp.csv"))
+    }
+
+    /** Compiled decision tables of the states built so far, keyed by state name. */
+    fun decisionTableMetrics(): Map<String, DecisionTable.Metrics> =
+        stateInstances.values
+            .filterIsInstance<UberChopState>()
+            .mapNotNull { state -> state.table?.let { state.name to it.metrics() } }
+            .toMap()
+
+    /** The compiled table of [state], or null until that state has been built. */
+    fun decisionTable(state: BotState): DecisionTable? = (stateInstances[state] as? UberChopState)?.table
+
     private fun instantiateState(state: BotState): PermissiveDSL<*>? = when (state) {
         BotState.CHOPPING -> Chopping(this)
         BotState.BANKING -> Banking(this)
         BotState.FLETCHING -> Fletching(this)
     }
 
-    internal fun depositItemsFallback(
-        pattern: Pattern,
-        maxIterations: Int = 10
-    ): Boolean {
-        var depositedAny = false
-        repeat(maxIterations) {
-            val item = Backpack.getItems().firstOrNull { pattern.matcher(it.name).matches() }
-                ?: return depositedAny
-            val interacted = Backpack.interact(item, "Deposit-All") ||
-                Backpack.interact(item, "Deposit") ||
-                Backpack.interact(item, "Deposit-1")
-            if (!interacted) {
-                log.warn("Fallback deposit failed for ${item.name} (${item.id})")
-                return depositedAny
-            }
-
-            depositedAny = true
-            delay(1)
+    // Categories a bank visit clears; the include/keep filters are applied on top by the planner.
+    private fun depositCategories(): Int {
+        var categories = ItemClassifier.NONE
+        if (logHandlingPreference != LogHandling.FLETCH) {
+            categories = categories or ItemClassifier.LOG
         }
-
-        return depositedAny
+        if (settings.pickupNests) {
+            categories = categories or ItemClassifier.BIRD_NEST
+        }
+        if (settings.useJujuPotions) {
+            categories = categories or ItemClassifier.JUJU_VIAL
+        }
+        return categories
     }
 
-    internal fun depositLogsFallback(maxIterations: Int = 10): Boolean =
-        depositItemsFallback(logPattern, maxIterations)
+    // The filter lists are edited from the GUI thread, so plan against copies.
+    internal fun planDeposits(): DepositPlanner.Plan =
+        depositPlanner.plan(
+            snapshot.backpackItems,
+            depositCategories(),
+            settings.depositInclude.toList(),
+            settings.depositKeep.toList()
+        )
 
-    internal fun hasFletchableLogs(): Boolean {
-        if (logHandlingPreference != LogHandling.FLETCH) {
+    /**
+     * Runs every interaction of [plan] in the same tick: the wood box is emptied when logs are going
+     * in, then the backpack goes in with one deposit or one Deposit-All per item id. Returns true
+     * when any interaction went through.
+     */
+    internal fun executeDepositPlan(plan: DepositPlanner.Plan): Boolean {
+        if (plan.isEmpty) {
             return false
         }
-        val logItem = Backpack.getItems().firstOrNull { logPattern.matcher(it.name).matches() } ?: return false
-        return resolveFletchingProduct(logItem) != null
+        var acted = plan.deposits(ItemClassifier.LOG) && hasWoodBox() && Equipment.emptyWoodBox(this)
+        if (plan.depositBackpack && depositBackpack()) {
+            return true
+        }
+        for (item in plan.items) {
+            val deposited = runCatching { Backpack.interact(item, "Deposit-All") || Backpack.interact(item, "Deposit") }
+                .onFailure { error -> log.debug("Deposit-All on {} failed: {}", item.name, error.message) }
+                .getOrDefault(false)
+            if (!deposited) {
+                log.warn("Deposit failed for ${item.name} (${item.id})")
+            }
+            acted = acted || deposited
+        }
+        return acted
     }
 
-    private fun resolveFletchingProduct(logItem: InventoryItem): FletchingProduct? {
-        val itemName = logItem.name
-        val normalized = itemName.lowercase()
+    // The deposit-backpack button is not on every client build's Bank; fall back to per-item deposits without it.
+    private fun depositBackpack(): Boolean {
+        val binding = ReflectiveBinder.method(Bank::class.java, DEPOSIT_BACKPACK_METHOD_NAMES, ignoreCase = true)
+            ?: return false
+        return runCatching { binding.invoke(Bank) != false }
+            .onFailure { error -> log.debug("Deposit backpack failed: {}", error.message) }
+            .getOrDefault(false)
+    }
 
-        if (!normalized.contains("log")) {
-            return null
+    /**
+     * Whether to fletch instead of waiting on [target]: fletch mode, fletchable logs held, and
+     * either every tree is down for a while with the player already in place, or there is no
+     * tree to chop at all (no [target]).
+     */
+    internal fun shouldFletchInGap(target: TreeScheduler.Target?): Boolean {
+        if (!hasFletchableLogs()) {
+            return false
         }
-
-        if (normalized == "logs" || normalized == "normal logs") {
-            return FletchingProduct.ARROW_SHAFTS
+        if (target == null) {
+            return true
         }
+        // Radius 2 so a player on a diagonal approach tile counts as standing next to the stump.
+        return !target.available && target.respawnInMs >= GAP_FLETCH_MIN_WAIT_MS &&
+            snapshot.isPlayerWithinRadius(target.tile, 2)
+    }
 
-        val primaryMatch = FletchingProduct.entries.firstOrNull { product ->
-            product.primaryMaterial?.equals(itemName, ignoreCase = true) == true
-        }
-        if (primaryMatch != null) {
-            return primaryMatch
-        }
+    internal fun startGapFletching(reason: String) {
+        switchState(BotState.FLETCHING, reason)
+        fletchingInGap = true
+        gapFletchSessions++
+    }
 
-        val partialMatch = FletchingProduct.entries.firstOrNull { product ->
-            val primary = product.primaryMaterial?.lowercase() ?: return@firstOrNull false
-            normalized.contains(primary) || primary.contains(normalized)
-        }
-        if (partialMatch != null) {
-            return partialMatch
-        }
+    /** True once the scheduler has a standing tree again; gap fletching ends on this. */
+    internal fun treeAvailable(): Boolean =
+        treeScheduler.next(snapshot.playerCoordinate)?.available == true
+
+    fun gapFletchSessions(): Long = gapFletchSessions
 
-        return null
+    internal fun hasFletchableLogs(): Boolean {
+        if (logHandlingPreference != LogHandling.FLETCH) {
+            return false
+        }
+        return snapshot.contains(ItemClassifier.FLETCHABLE)
     }
 
     internal fun attemptFletchLogs(): Boolean {
-        val now = System.currentTimeMillis()
+        val now = ScriptClock.now()
         if (now < nextFletchAttemptAllowedAt) {
             return false
         }
 
-        val logItem = Backpack.getItems().firstOrNull { logPattern.matcher(it.name).matches() } ?: return false
-        val product = resolveFletchingProduct(logItem) ?: run {
+        val logItem = snapshot.first(ItemClassifier.LOG) ?: return false
+        val recipe = fletchingRecipes.forItem(logItem.id, logItem.name) ?: run {
             warn("Fletching: no recipe resolves for ${logItem.name}")
             nextFletchAttemptAllowedAt = now + 2_000L
             return false
         }
+        val product = recipe.product
 
         val canProduce = try {
-            skilling.fletching.canProduce(product)
+            fletchingRecipes.canProduce(recipe, Stats.FLETCHING.level, backpackModel.version) { skilling.fletching.canProduce(it) }
         } catch (error: Throwable) {
             warn("Fletching: canProduce failed for ${product.displayName}: ${error.message}")
             false
         }
         if (!canProduce) {
-            warn("Fletching: requirements not met for ${product.displayName}")
+            warn("Fletching: requirements not met for ${product.displayName} (level ${recipe.level})")
             nextFletchAttemptAllowedAt = now + 5_000L
             return false
         }
@@ -1091,16 +1426,8 @@ val statsObject = JsonObject().apply {
         }
 
         val started = try {
-            val managerClass = manager.javaClass
-            val method = managerClass.methods.firstOrNull { method ->
-                method.parameterCount == 0 && method.name.equals("all", ignoreCase = true)
-            } ?: managerClass.methods.firstOrNull { method ->
-                method.parameterCount == 0 && method.name.equals("startAll", ignoreCase = true)
-            }
-            val result = method?.let { invoke ->
-                invoke.isAccessible = true
-                invoke.invoke(manager)
-            }
+            val result = ReflectiveBinder.method(manager.javaClass, FLETCH_ALL_METHOD_NAMES, ignoreCase = true)
+                ?.invoke(manager)
             when (result) {
                 is Boolean -> result
                 is Number -> result.toInt() != 0
@@ -1119,8 +1446,9 @@ val statsObject = JsonObject().apply {
         return started
     }
 
-    internal fun hasJujuPotionInBackpack(): Boolean =
-        Backpack.getItems().any { jujuPotionPattern.matcher(it.name).matches() }
+    internal fun hasJujuPotionInBackpack(): Boolean = snapshot.contains(ItemClassifier.JUJU_POTION)
+
+    internal fun hasWoodBox(): Boolean = snapshot.contains(ItemClassifier.WOOD_BOX)
 
     private fun ensureJujuRestockBootstrap() {
         if (jujuRestockInitialized) {
@@ -1162,54 +1490,70 @@ val statsObject = JsonObject().apply {
         }
     }
 
-    private fun bankContainsJujuPotion(): Boolean? = runCatching {
-        val methods = Bank::class.java.methods
-        val contains = methods.firstOrNull { method ->
-            method.name == "contains" && method.parameterTypes.size == 1 &&
-                Pattern::class.java.isAssignableFrom(method.parameterTypes[0])
+    /**
+     * Whether the bank holds [category]. A live index answers directly; a restored one is trusted
+     * only when it has the item, and an absence is confirmed against the bank.
+     */
+    private fun bankHas(category: Int, pattern: Pattern): Boolean? {
+        if (bankIndex.contains(category)) {
+            return true
         }
-        if (contains != null) {
-            contains.isAccessible = true
-            val result = contains.invoke(null, jujuPotionPattern) as? Boolean
-            if (result != null) {
-                return@runCatching result
-            }
+        if (bankIndex.source == BankIndex.Source.LIVE) {
+            return false
         }
+        return bankContainsLive(category, pattern)
+    }
 
-        val itemsMethod = methods.firstOrNull { method ->
-            method.parameterTypes.isEmpty() && (method.name == "getItems" || method.name == "items")
-        } ?: return@runCatching null
-        itemsMethod.isAccessible = true
-        val itemsResult = itemsMethod.invoke(null)
-        val iterable = when (itemsResult) {
-            is Collection<*> -> itemsResult
-            is Array<*> -> itemsResult.asList()
-            else -> return@runCatching null
-        }
-        for (entry in iterable) {
-            val name = runCatching {
-                val nameMethod = entry?.javaClass?.methods?.firstOrNull { method ->
-                    method.name == "getName" && method.parameterTypes.isEmpty()
-                }
-                nameMethod?.isAccessible = true
-                nameMethod?.invoke(entry) as? String
-            }.getOrNull()
-            if (name != null && jujuPotionPattern.matcher(name).matches()) {
-                return@runCatching true
-            }
+    private fun bankContainsLive(category: Int, pattern: Pattern): Boolean? = runCatching {
+        // Reading the item list also fills the index, so prefer it over a one-off contains().
+        readBankItems()?.let { items ->
+            bankIndex.rebuild(items)
+            return@runCatching bankIndex.contains(category)
         }
-        false
+        val contains = ReflectiveBinder.method(
+            Bank::class.java,
+            listOf("contains"),
+            listOf(Pattern::class.java),
+            assignableParameters = true
+        ) ?: return@runCatching null
+        contains.invoke(null, pattern) as? Boolean
     }.getOrNull()
 
+    private fun readBankItems(): List<InventoryItem>? = runCatching {
+        val itemsMethod = ReflectiveBinder.method(Bank::class.java, BANK_ITEMS_METHOD_NAMES) ?: return@runCatching null
+        when (val itemsResult = itemsMethod.invoke(null)) {
+            is Collection<*> -> itemsResult.filterIsInstance<InventoryItem>()
+            is Array<*> -> itemsResult.filterIsInstance<InventoryItem>()
+            else -> null
+        }
+    }.onFailure { error -> log.debug("Bank item list unavailable: ${error.message}") }.getOrNull()
+
+    /** Reads the open bank into [bankIndex] unless its inventory events have already made it live. */
+    private fun refreshBankIndex() {
+        if (bankIndex.source == BankIndex.Source.LIVE) {
+            return
+        }
+        readBankItems()?.let { items ->
+            bankIndex.rebuild(items)
+            log.debug("Bank index rebuilt: ${bankIndex.size} slots")
+        }
+    }
+
+    /** False only when a live bank index shows no wood box to withdraw. */
+    internal fun woodBoxInBank(): Boolean =
+        bankIndex.source != BankIndex.Source.LIVE || bankIndex.contains(ItemClassifier.WOOD_BOX)
+
+    /** A wood box is wanted and one can still come from the bank; a box known not to be there is not waited for. */
+    internal fun needsWoodBoxFromBank(): Boolean =
+        shouldUseWoodBox && !hasWoodBox() && woodBoxInBank()
+
     internal fun needsJujuRestock(): Boolean =
         settings.useJujuPotions && jujuRestockMode == JujuRestockMode.REQUIRED && !hasJujuPotionInBackpack()
 
     internal fun shouldStayAtBankForJuju(): Boolean = needsJujuRestock()
 
-    internal fun shouldDepositJujuVials(): Boolean =
-        settings.useJujuPotions && Backpack.contains(jujuVialPattern)
-
-    internal fun shouldRestockJujuPotions(): Boolean {
+    /** [freeSlots] is the space the restock can use, which a planned visit counts after its deposits. */
+    internal fun shouldRestockJujuPotions(freeSlots: Int = backpackModel.freeSlots): Boolean {
         if (!needsJujuRestock()) {
             if (settings.useJujuPotions && jujuRestockMode == JujuRestockMode.REQUIRED && hasJujuPotionInBackpack()) {
                 jujuRestockMode = JujuRestockMode.IDLE
@@ -1217,29 +1561,33 @@ val statsObject = JsonObject().apply {
             }
             return false
         }
-        if (Backpack.isFull()) {
+        if (freeSlots <= 0) {
             return false
         }
-        return System.currentTimeMillis() >= jujuWithdrawRetryAt
+        return ScriptClock.now() >= jujuWithdrawRetryAt
     }
 
-    internal fun attemptJujuWithdraw(): Boolean {
-        val now = System.currentTimeMillis()
+    internal fun attemptJujuWithdraw(amount: Int = JUJU_WITHDRAW_COUNT): Boolean {
+        val now = ScriptClock.now()
         if (now < jujuWithdrawRetryAt) {
             return false
         }
-        val bankHas = bankContainsJujuPotion()
+        val bankHas = bankHas(ItemClassifier.JUJU_POTION, jujuPotionPattern)
         if (bankHas == false && !hasJujuPotionInBackpack()) {
             markJujuUnavailable()
             jujuWithdrawRetryAt = 0L
             return false
         }
 
-        val withdrew = runCatching { Bank.withdraw(jujuPotionPattern, JUJU_WITHDRAW_COUNT) }
+        val mark = awaits.inventoryMark()
+        val withdrew = runCatching { Bank.withdraw(jujuPotionPattern, amount) }
             .onFailure { error -> log.warn("AttemptJujuWithdraw: withdraw threw ${error.message}") }
             .getOrDefault(false)
+        if (withdrew) {
+            awaits.awaitInventoryChange(mark, 3)
+        }
 
-        if (hasJujuPotionInBackpack()) {
+        if (Backpack.contains(jujuPotionPattern)) {
             jujuRestockMode = JujuRestockMode.IDLE
             jujuWithdrawRetryAt = 0L
             return true
@@ -1249,6 +1597,10 @@ val statsObject = JsonObject().apply {
             markJujuUnavailable()
             jujuWithdrawRetryAt = 0L
         } else if (!withdrew) {
+            if (bankIndex.source != BankIndex.Source.LIVE) {
+                // A restored index said yes; let the next attempt ask the bank itself.
+                bankIndex.markMissing(ItemClassifier.JUJU_POTION)
+            }
             jujuWithdrawRetryAt = now + JUJU_WITHDRAW_RETRY_MS
         }
         return withdrew
@@ -1265,20 +1617,21 @@ val statsObject = JsonObject().apply {
             requireJujuRestock("Backpack has no juju potions while effect inactive")
             return false
         }
-        val now = System.currentTimeMillis()
+        val now = ScriptClock.now()
         return now - lastJujuDrinkAttemptAt >= 1_000L
     }
 
     internal fun drinkJujuPotion(): Boolean {
-        val potion = Backpack.getItems().firstOrNull { jujuPotionPattern.matcher(it.name).matches() }
+        val potion = snapshot.first(ItemClassifier.JUJU_POTION)
             ?: run {
                 requireJujuRestock("Attempted to drink juju potion but none found in backpack")
                 return false
             }
-        lastJujuDrinkAttemptAt = System.currentTimeMillis()
+        lastJujuDrinkAttemptAt = ScriptClock.now()
         val drank = Backpack.interact(potion, "Drink") || Backpack.interact(potion, "Sip")
         if (drank) {
-            jujuEffectExpiresAt = System.currentTimeMillis() + JUJU_EFFECT_DURATION_MS
+            jujuEffectExpiresAt = ScriptClock.now() + JUJU_EFFECT_DURATION_MS
+            vars.deferVarbits(JUJU_EFFECT_VARBITS, jujuEffectExpiresAt)
             log.debug("DrinkJujuPotion: consumed ${potion.name}")
             delay(1)
         } else {
@@ -1288,43 +1641,105 @@ val statsObject = JsonObject().apply {
         return drank
     }
 
-    internal fun isJujuEffectActive(): Boolean {
-        val now = System.currentTimeMillis()
-        if (now < jujuEffectExpiresAt) {
-            return true
-        }
-        for (varbit in JUJU_EFFECT_VARBITS) {
-            val value = runCatching { VarDomain.getVarBitValue(varbit) }
-                .onFailure { error -> log.debug("isJujuEffectActive: varbit $varbit read failed: ${error.message}") }
-                .getOrNull()
-            if (value != null && value != 0) {
+    internal fun isJujuEffectActive(): Boolean =
+        ScriptClock.now() < jujuEffectExpiresAt || jujuVarbitActive
+
+    private fun onJujuVarbitsChanged() {
+        val active = JUJU_EFFECT_VARBITS.any { varbit -> (vars.varbit(varbit) ?: 0) != 0 }
+        jujuVarbitActive = active
+        if (active) {
+            // Effect found without a local drink (e.g. drunk manually): assume a full duration from now.
+            val now = ScriptClock.now()
+            if (now >= jujuEffectExpiresAt) {
                 jujuEffectExpiresAt = now + JUJU_EFFECT_DURATION_MS
-                return true
+                vars.deferVarbits(JUJU_EFFECT_VARBITS, jujuEffectExpiresAt)
             }
         }
-        return false
     }
 
+    fun varWatchMetrics(): VarWatch.Metrics = vars.metrics()
+
 
     internal fun canAttemptWoodBoxWithdraw(): Boolean =
-        System.currentTimeMillis() >= nextWoodBoxWithdrawTimeMs
+        ScriptClock.now() >= nextWoodBoxWithdrawTimeMs
 
 
     internal fun recordWoodBoxWithdraw(success: Boolean) {
         woodBoxWithdrawAttempted = true
         woodBoxWithdrawSucceeded = success
-        nextWoodBoxWithdrawTimeMs = if (success) 0L else System.currentTimeMillis() + woodBoxRetryCooldownMs
+        nextWoodBoxWithdrawTimeMs = if (success) 0L else ScriptClock.now() + woodBoxRetryCooldownMs
         if (!success) {
             log.debug("Wood box withdraw retry delayed for ${woodBoxRetryCooldownMs / 1000}s")
         }
     }
 
+    /** Withdraws the wood box and waits for it to land in the backpack; records the outcome either way. */
+    internal fun withdrawWoodBox(): Boolean {
+        val mark = awaits.inventoryMark()
+        val withdrew = runCatching { Bank.withdraw(woodBoxPattern, 1) }
+            .onFailure { error -> log.warn("WithdrawWoodBox: withdraw threw ${error.message}") }
+            .getOrElse { false }
+        val landed = withdrew && (awaits.awaitInventoryChange(mark, 3) || hasWoodBox())
+        if (!landed) {
+            log.warn("WithdrawWoodBox: failed to withdraw wood box from bank")
+            if (bankIndex.source != BankIndex.Source.LIVE) {
+                bankIndex.markMissing(ItemClassifier.WOOD_BOX)
+            }
+        }
+        recordWoodBoxWithdraw(landed)
+        return landed
+    }
+
+    /**
+     * Decides the whole visit from the open bank: what to deposit, then what to withdraw into the
+     * space those deposits leave. [deposit] lets the caller pass a plan it already made this tick.
+     */
+    internal fun planBankVisit(deposit: DepositPlanner.Plan = planDeposits()): BankVisitPlan {
+        refreshBankIndex()
+        val freeAfterDeposit = if (deposit.isEmpty) backpackModel.freeSlots else BackpackModel.SLOT_COUNT - deposit.keptSlots
+        var free = freeAfterDeposit
+        val juju = if (shouldRestockJujuPotions(free)) minOf(JUJU_WITHDRAW_COUNT, free) else 0
+        free -= juju
+        // A box the index shows is not in the bank is not worth waiting for.
+        val missingWoodBox = shouldUseWoodBox && !hasWoodBox() &&
+            bankHas(ItemClassifier.WOOD_BOX, woodBoxPattern) != false
+        val woodBox = missingWoodBox && free > 0 && canAttemptWoodBoxWithdraw()
+        // A wood box still on its retry cooldown keeps us at the bank, as does a juju restock that is not due yet.
+        val close = !(missingWoodBox && !woodBox) && (juju > 0 || !shouldStayAtBankForJuju())
+        return BankVisitPlan(deposit, juju, woodBox, close)
+    }
+
+    internal fun markBankVisitStart() {
+        if (bankVisitStartedAt == 0L) {
+            bankVisitStartedAt = ScriptClock.now()
+        }
+    }
+
+    internal fun finishBankVisit() {
+        val started = bankVisitStartedAt
+        if (started == 0L) {
+            return
+        }
+        bankVisitStartedAt = 0L
+        if (bankIndex.version != bankIndexSavedVersion) {
+            bankIndexSavedVersion = bankIndex.version
+            persistence.markDirty()
+        }
+        bankVisits.record(location, ((ScriptClock.now() - started + TICK_MS / 2) / TICK_MS).toInt())
+    }
+
+    fun bankVisitMetrics(): Map<String, BankVisitStats.Summary> = bankVisits.summaries()
+
+    fun bankIndexSource(): BankIndex.Source = bankIndex.source
+
+    fun bankIndexSlots(): Int = bankIndex.size
+
     internal fun ensureWoodBoxInBackpack(
         statusMessage: String,
         warnMessage: String,
         errorMessage: String
     ): Boolean {
-        if (Equipment.hasWoodBox()) {
+        if (hasWoodBox()) {
             return false
         }
 
@@ -1360,43 +1775,58 @@ val statsObject = JsonObject().apply {
         return newItem.quantity
     }
 
+    private fun computeRemovedQuantity(oldItem: InventoryItem, newItem: InventoryItem): Int {
+        if (oldItem.id <= -1) {
+            return 0
+        }
+        if (oldItem.id == newItem.id) {
+            val delta = oldItem.quantity - newItem.quantity
+            return if (delta > 0) delta else 0
+        }
+        return oldItem.quantity
+    }
+
     @EventInfo(type = InventoryEvent::class)
     fun onInventoryEvent(event: InventoryEvent) {
+        awaits.onInventoryEvent(event.inventory.id)
+        if (event.inventory.id == BANK_INVENTORY_ID) {
+            bankIndex.apply(event.newItem())
+            return
+        }
         if (event.inventory.id != BACKPACK_INVENTORY_ID) {
             return
         }
-
         val oldItem = event.oldItem()
         val newItem = event.newItem()
+        if (!backpackModel.apply(newItem)) {
+            nextBackpackReconcileAt = 0L
+        }
+        val quantityRemoved = computeRemovedQuantity(oldItem, newItem)
+        if (quantityRemoved > 0 && itemClassifier.classify(oldItem) and ItemClassifier.LOG != 0) {
+            Equipment.woodBox.onBackpackRemoved(oldItem.name.orEmpty(), quantityRemoved)
+        }
         val quantityAdded = computeAcquiredQuantity(oldItem, newItem)
         if (quantityAdded <= 0) {
             return
         }
 
-        val itemName = newItem.name
-        val isLog = logPattern.matcher(itemName).matches()
-        val isBirdNest = settings.pickupNests && birdNestRegex.matches(itemName)
+        val category = itemClassifier.classify(newItem)
+        val isLog = category and ItemClassifier.LOG != 0
+        val isBirdNest = settings.pickupNests && category and ItemClassifier.BIRD_NEST != 0
 
         if (!isLog && !isBirdNest) {
             return
         }
 
-        var statsChanged = false
-        synchronized(statsLock) {
-            if (isLog) {
-                logsChopped += quantityAdded
-                lifetimeLogs += quantityAdded
-                statsChanged = true
-            }
-            if (isBirdNest) {
-                birdNestsCollected += quantityAdded
-                lifetimeBirdNests += quantityAdded
-                statsChanged = true
-            }
+        if (isLog) {
+            stats.addLogs(quantityAdded)
+            logRate.record(quantityAdded.toLong())
         }
-        if (statsChanged) {
-            persistStats()
+        if (isBirdNest) {
+            stats.addNests(quantityAdded)
+            nestRate.record(quantityAdded.toLong())
         }
+        persistStats()
         if (isLog) {
             handleQueueLogs(quantityAdded)
         }
@@ -1428,7 +1858,7 @@ val statsObject = JsonObject().apply {
         jujuWithdrawRetryAt = 0L
         applyLocationSelection()
         uiSettingsLoaded = true
-        performSavePersistentData()
+        requestSave()
     }
 
     private fun applyLocationSelection() {
@@ -1451,11 +1881,24 @@ val statsObject = JsonObject().apply {
             settings.savedLocation = resolvedLocation
         }
 
-        val locationData = treeLocations.firstOrNull { it.name == resolvedLocation }
-
-        val custom = settings.customLocations[resolvedLocation]
-        treeTile = custom?.let { toCoordinate(it.chopX, it.chopY, it.chopZ) } ?: locationData?.chop
-        bankTile = custom?.let { toCoordinate(it.bankX, it.bankY, it.bankZ) } ?: locationData?.bank
+        // Rebuilt on every selection so edits to custom tiles show up in lookups straight away.
+        val index = TreeLocationIndex.build(treeLocations, settings.customLocations)
+        locationIndex = index
+        treeScheduler.reset()
+        visibleTrees = emptyMap()
+        invalidateTreeScan()
+        val locationData = index.byName(resolvedLocation)
+
+        // Indexed locations already carry their overrides; unknown names can still have custom tiles.
+        val custom = if (locationData == null) settings.customLocations[resolvedLocation] else null
+        treeTile = locationData?.chop ?: custom?.let { toCoordinate(it.chopX, it.chopY, it.chopZ) }
+        bankTile = locationData?.bank ?: custom?.let { toCoordinate(it.bankX, it.bankY, it.bankZ) }
+        if (bankTile == null && treeTile == null) {
+            // "Anywhere": bank at the closest known bank tile if one is reasonably near.
+            bankTile = (snapshot.playerCoordinate ?: Coordinates.player())
+                ?.let { index.nearestBank(it, ANYWHERE_BANK_RADIUS) }
+        }
+        prefetchRoutes()
         if (locationData != null && locationData.availableTrees.isNotEmpty()) {
             // Make sure the selected tree is actually available at the chosen spot.
             val matches = locationData.availableTrees.firstOrNull { type ->
@@ -1473,15 +1916,11 @@ val statsObject = JsonObject().apply {
             return false
         }
 
-        if (Backpack.isFull()) {
+        if (snapshot.backpackFull) {
             return false
         }
 
-        return World.getGroundItems()
-            .asSequence()
-            .flatMap { ground -> ground.items.asSequence() }
-            .any { item -> birdNestRegex.matches(item.name) }
-
+        return birdNests.present
     }
 
     fun pickupBirdNests(): Boolean {
@@ -1489,45 +1928,69 @@ val statsObject = JsonObject().apply {
             return false
         }
 
-        if (Backpack.isFull()) {
+        if (snapshot.backpackFull) {
             warn("Cannot pick up bird's nest because backpack is full")
             return false
         }
 
-        val pickupTask = scene.pickup {
-            global {
-                distance(8)
-                itemPriority(PickupItemPriority.VERY_HIGH)
+        return when (birdNestPickup.pickup()) {
+            PickupMessages.NO_ITEMS_FOUND -> {
+                // Out of reach or already gone; stop asking until the next scheduled scan.
+                birdNests.markEmpty()
+                false
             }
-
-            item(birdNestRegex)
-        }
-
-        return when (pickupTask.pickup()) {
-            PickupMessages.NO_ITEMS_FOUND -> false
             PickupMessages.FULL_INVENTORY -> {
                 warn("Failed to pick up bird's nest: inventory full")
                 false
             }
 
-            else -> true
+            else -> {
+                birdNests.invalidate()
+                true
+            }
         }
 
     }
 
-    internal fun canAttemptNavigation(now: Long = System.currentTimeMillis()): Boolean =
+    /**
+     * Resolves the leg leading away from the player's end of the trip, off the tick thread. The
+     * player is at whichever of the tree and bank tiles is nearer, so the other one is the next trip.
+     * Nothing is prefetched when the player already stands at the only configured tile.
+     */
+    internal fun prefetchRoutes() {
+        val origin = snapshot.playerCoordinate ?: Coordinates.player() ?: return
+        val tree = treeTile
+        val bank = bankTile
+        val away = when {
+            tree == null -> bank
+            bank == null -> tree
+            Coordinates.distance(origin, tree) <= Coordinates.distance(origin, bank) -> bank
+            else -> tree
+        } ?: return
+        if (Coordinates.distance(origin, away) <= PREFETCH_MIN_DISTANCE) {
+            return
+        }
+        routeCache.prefetch(origin, listOf(away))
+    }
+
+    fun routeCacheMetrics(): RouteCache.Metrics = routeCache.metrics()
+
+    fun navigationMetrics(): NavigationSession.Metrics = navigation.metrics()
+
+    internal fun canAttemptNavigation(now: Long = ScriptClock.now()): Boolean =
         now >= nextNavigationAllowedAt
 
-    internal fun scheduleNavigationRetry(state: NavState, now: Long = System.currentTimeMillis()) {
+    internal fun scheduleNavigationRetry(state: NavState, now: Long = ScriptClock.now()) {
         val delayMs = when (state) {
-            NavState.CONTINUE -> navigationInProgressRetryMs
+            // A live path is polled again next tick instead of waiting out a cooldown.
+            NavState.CONTINUE -> 0L
             NavState.NO_PATH, NavState.FAILED -> navigationFailureRetryMs
             NavState.FINISHED, NavState.IDLE -> navigationCooldownMs
         }
         scheduleNavigationRetry(delayMs, now)
     }
 
-    internal fun scheduleNavigationRetry(delayMs: Long, now: Long = System.currentTimeMillis()) {
+    internal fun scheduleNavigationRetry(delayMs: Long, now: Long = ScriptClock.now()) {
         nextNavigationAllowedAt = now + delayMs
     }
     private fun toCoordinate(x: Int?, y: Int?, z: Int?): Coordinate? =
@@ -0,0 +1,156 @@
+package com.uberith.uberchop.config
+
+import net.botwithus.kxapi.game.skilling.impl.woodcutting.TreeType
+import net.botwithus.rs3.world.Coordinate
+import java.util.EnumMap
+import java.util.Locale
+
+/**
+ * Lookup structure over [TreeLocation]s with user tile overrides applied.
+ *
+ * Names resolve through a lower-cased hash map and tree types through an inverted index.
+ * Chop and bank tiles are bucketed into a uniform grid of [CELL_SIZE]-tile cells, so nearest-spot
+ * queries only visit the rings of cells around the origin instead of every location.
+ * Instances are immutable; rebuild with [build] when custom locations change.
+ */
+class TreeLocationIndex private constructor(val locations: List<TreeLocation>) {
+
+    companion object {
+        private const val CELL_SIZE = 64
+
+        /** Index over [TreeLocations.ALL] without overrides. */
+        val DEFAULT: TreeLocationIndex by lazy { build(TreeLocations.ALL, emptyMap()) }
+
+        fun build(base: List<TreeLocation>, custom: Map<String, CustomLocation>): TreeLocationIndex {
+            val merged = base.map { location ->
+                val override = custom[location.name] ?: return@map location
+                location.copy(
+                    chop = coordinateOf(override.chopX, override.chopY, override.chopZ) ?: location.chop,
+                    bank = coordinateOf(override.bankX, override.bankY, override.bankZ) ?: location.bank
+                )
+            }
+            return TreeLocationIndex(merged)
+        }
+
+        private fun coordinateOf(x: Int?, y: Int?, z: Int?): Coordinate? =
+            if (x != null && y != null && z != null) Coordinate(x, y, z) else null
+
+        private fun cellKey(cellX: Int, cellY: Int): Long = (cellX.toLong() shl 32) or (cellY.toLong() and 0xFFFFFFFFL)
+    }
+
+    private class Point(val location: TreeLocation, val tile: Coordinate)
+
+    private class Grid(val cells: Map<Long, List<Point>>, val points: List<Point>) {
+        val minCellX = points.minOfOrNull { Math.floorDiv(it.tile.x, CELL_SIZE) } ?: 0
+        val maxCellX = points.maxOfOrNull { Math.floorDiv(it.tile.x, CELL_SIZE) } ?: 0
+        val minCellY = points.minOfOrNull { Math.floorDiv(it.tile.y, CELL_SIZE) } ?: 0
+        val maxCellY = points.maxOfOrNull { Math.floorDiv(it.tile.y, CELL_SIZE) } ?: 0
+    }
+
+    private val byName: Map<String, TreeLocation> =
+        locations.associateBy { it.name.lowercase(Locale.ROOT) }
+    private val byType: Map<TreeType, List<TreeLocation>> =
+        EnumMap<TreeType, MutableList<TreeLocation>>(TreeType::class.java).also { map ->
+            for (location in locations) {
+                for (type in location.availableTrees) {
+                    map.getOrPut(type) { mutableListOf() }.add(location)
+                }
+            }
+        }
+    private val chopGrid = gridOf { it.chop }
+    private val bankGrid = gridOf { it.bank }
+
+    fun byName(name: String): TreeLocation? = byName[name.lowercase(Locale.ROOT)]
+
+    fun locationsFor(type: TreeType): List<TreeLocation> = byType[type] ?: emptyList()
+
+    fun locationsFor(name: String): List<TreeLocation> {
+        val type = TreeTypes.resolve(name)
+        return if (type != null) locationsFor(type) else locations.filter { it.name.contains(name, ignoreCase = true) }
+    }
+
+    /** Closest location (by chop tile) offering [type], or any type when [type] is null. */
+    fun nearestChop(origin: Coordinate, type: TreeType? = null, maxDistance: Int = Int.MAX_VALUE): TreeLocation? =
+        nearest(chopGrid, origin, maxDistance) { type == null || type in it.availableTrees }?.location
+
+    /** Closest known bank tile to [origin] on the same plane. */
+    fun nearestBank(origin: Coordinate, maxDistance: Int = Int.MAX_VALUE): Coordinate? =
+        nearest(bankGrid, origin, maxDistance) { true }?.tile
+
+    private fun gridOf(tileOf: (TreeLocation) -> Coordinate?): Grid {
+        val cells = HashMap<Long, MutableList<Point>>()
+        val points = ArrayList<Point>()
+        for (location in locations) {
+            val tile = tileOf(location) ?: continue
+            val point = Point(location, tile)
+            points += point
+            cells.getOrPut(cellKey(Math.floorDiv(tile.x, CELL_SIZE), Math.floorDiv(tile.y, CELL_SIZE))) { mutableListOf() }
+                .add(point)
+        }
+        return Grid(cells, points)
+    }
+
+    private fun nearest(grid: Grid, origin: Coordinate, maxDistance: Int, accept: (TreeLocation) -> Boolean): Point? {
+        if (grid.points.isEmpty()) {
+            return null
+        }
+        val originCellX = Math.floorDiv(origin.x, CELL_SIZE)
+        val originCellY = Math.floorDiv(origin.y, CELL_SIZE)
+        val limit = if (maxDistance == Int.MAX_VALUE) Long.MAX_VALUE else maxDistance.toLong() * maxDistance
+        // Rings needed to cover every occupied cell from here.
+        val ringsNeeded = maxOf(
+            maxOf(originCellX - grid.minCellX, grid.maxCellX - originCellX),
+            maxOf(originCellY - grid.minCellY, grid.maxCellY - originCellY)
+        ).coerceAtLeast(0)
+        val best = Candidate()
+        if (ringsNeeded * 8 > grid.points.size) {
+            // Far outside the indexed area (or a tiny index): scanning the points is cheaper than the rings.
+            grid.points.forEach { best.offer(it, origin, limit, accept) }
+            return best.point
+        }
+        for (ring in 0..ringsNeeded) {
+            // Everything in this ring is at least (ring - 1) cells away; stop once that can't win.
+            val ringFloor = ((ring - 1).coerceAtLeast(0) * CELL_SIZE).toLong()
+            if (ringFloor * ringFloor > minOf(best.distance, limit)) {
+                break
+            }
+            forEachRingCell(originCellX, originCellY, ring) { cellX, cellY ->
+                grid.cells[cellKey(cellX, cellY)]?.forEach { best.offer(it, origin, limit, accept) }
+            }
+        }
+        return best.point
+    }
+
+    private inline fun forEachRingCell(centerX: Int, centerY: Int, ring: Int, action: (Int, Int) -> Unit) {
+        if (ring == 0) {
+            action(centerX, centerY)
+            return
+        }
+        for (dx in -ring..ring) {
+            action(centerX + dx, centerY - ring)
+            action(centerX + dx, centerY + ring)
+        }
+        for (dy in -ring + 1 until ring) {
+            action(centerX - ring, centerY + dy)
+            action(centerX + ring, centerY + dy)
+        }
+    }
+
+    private class Candidate {
+        var point: Point? = null
+        var distance = Long.MAX_VALUE
+
+        fun offer(candidate: Point, origin: Coordinate, limit: Long, accept: (TreeLocation) -> Boolean) {
+            if (candidate.tile.z != origin.z || !accept(candidate.location)) {
+                return
+            }
+            val dx = (candidate.tile.x - origin.x).toLong()
+            val dy = (candidate.tile.y - origin.y).toLong()
+            val squared = dx * dx + dy * dy
+            if (squared <= limit && squared < distance) {
+                point = candidate
+                distance = squared
+            }
+        }
+    }
+}
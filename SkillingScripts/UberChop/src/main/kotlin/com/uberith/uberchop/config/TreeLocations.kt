@@ -161,13 +161,10 @@ object TreeLocations {
         )
     )
 
-    fun byName(name: String): TreeLocation? = ALL.firstOrNull { it.name.equals(name, ignoreCase = true) }
+    fun byName(name: String): TreeLocation? = TreeLocationIndex.DEFAULT.byName(name)
 
-    fun locationsFor(type: TreeType): List<TreeLocation> = ALL.filter { type in it.availableTrees }
+    fun locationsFor(type: TreeType): List<TreeLocation> = TreeLocationIndex.DEFAULT.locationsFor(type)
 
-    fun locationsFor(name: String): List<TreeLocation> {
-        val type = TreeTypes.resolve(name)
-        return if (type != null) locationsFor(type) else ALL.filter { it.name.contains(name, ignoreCase = true) }
-    }
+    fun locationsFor(name: String): List<TreeLocation> = TreeLocationIndex.DEFAULT.locationsFor(name)
 }
 
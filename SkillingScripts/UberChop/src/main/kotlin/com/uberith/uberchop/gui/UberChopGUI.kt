@@ -1,5 +1,6 @@
 package com.uberith.uberchop.gui
 
+import com.uberith.uberchop.Equipment
 import com.uberith.uberchop.UberChop
 import com.uberith.uberchop.config.TreeLocations
 import com.uberith.uberchop.config.QueueEntry
@@ -9,6 +10,9 @@ import net.botwithus.kxapi.imgui.ImGuiUI
 import org.slf4j.LoggerFactory
 import java.io.ByteArrayOutputStream
 import javax.imageio.ImageIO
+import com.uberith.api.script.RateEstimator
+import com.uberith.api.utils.ReflectiveBinder
+import com.uberith.api.utils.ScriptClock
 import com.uberith.api.ui.ColorManager
 import com.uberith.api.ui.CustomImages
 import com.uberith.api.ui.NavigationUI
@@ -36,7 +40,9 @@ class UberChopGUI(private val script: UberChop) : ImGuiUI() {
     private val WINDOW_H = 620f
     private val NAV_W = 180f
     private val NAV_BUTTON_H = 40f
+    private val RATE_WINDOWS_MINUTES = intArrayOf(5, 15, 60)
     private var appliedInitialWindowSize = false
+    private var nodeProfileMessage: String = ""
     // Target tree selection will use a true Combo box (dropdown)
 
     private val windowTitle by lazy {
@@ -769,7 +775,7 @@ class UberChopGUI(private val script: UberChop) : ImGuiUI() {
             ImGui.endCombo()
         }
 
-        val filtered = TreeLocations.locationsFor(script.targetTree).ifEmpty { script.treeLocations }
+        val filtered = script.locationIndex.locationsFor(script.targetTree).ifEmpty { script.locationIndex.locations }
         if (treeChanged && filtered.none { it.name == script.location }) {
             val fallback = filtered.firstOrNull()?.name ?: script.treeLocations.firstOrNull()?.name ?: ""
             script.location = fallback
@@ -1622,6 +1628,13 @@ class UberChopGUI(private val script: UberChop) : ImGuiUI() {
             ImGui.text("Bird nests collected: ${formatNumber(script.birdNestsCollected)} (${formatNumber(script.birdNestsPerHour())} /h)")
         }
         ImGui.separator()
+        ImGui.text("Recent rates (" + RATE_WINDOWS_MINUTES.joinToString(" / ") { "${it}m" } + " / trend)")
+        drawRateLine("Logs", script.logRate)
+        drawRateLine("XP", script.xpRate)
+        if (script.settings.pickupNests) {
+            drawRateLine("Bird nests", script.nestRate)
+        }
+        ImGui.separator()
         ImGui.text("Target: ${script.targetTree}")
         ImGui.text("Log handling: " + when (script.settings.logHandlingMode.coerceIn(0, 2)) {
             1 -> "Burn Logs"
@@ -1636,6 +1649,54 @@ class UberChopGUI(private val script: UberChop) : ImGuiUI() {
         ImGui.text("Overall Runtime: ${formatDuration(script.lifetimeRuntimeMillis())}")
     }
 
+    private fun drawRateLine(label: String, rate: RateEstimator) {
+        val now = ScriptClock.now()
+        val windows = RATE_WINDOWS_MINUTES.joinToString(" / ") { formatNumber(rate.perHour(it, now)) }
+        ImGui.text("$label /h: $windows / ${formatNumber(rate.ewmaPerHour(now))}")
+    }
+
+    private fun drawNodeProfile() {
+        ImGui.separator()
+        val enabled = ImGui.checkbox("Profile state nodes", script.nodeProfilingEnabled)
+        if (enabled != script.nodeProfilingEnabled) {
+            script.nodeProfilingEnabled = enabled
+        }
+        ImGui.sameLine(0f, 12f)
+        if (ImGui.button("Reset##node_profile", 70f, 0f)) {
+            script.resetNodeProfile()
+            nodeProfileMessage = ""
+        }
+        ImGui.sameLine(0f, 6f)
+        if (ImGui.button("Export CSV##node_profile", 110f, 0f)) {
+            nodeProfileMessage = runCatching { "Exported to ${script.exportNodeProfile().absolutePath}" }
+                .getOrElse { "Export failed: ${it.message}" }
+        }
+        if (nodeProfileMessage.isNotEmpty()) {
+            ImGui.text(nodeProfileMessage)
+        }
+        val rows = script.nodeProfileRows()
+        if (rows.isEmpty()) {
+            if (script.nodeProfilingEnabled) {
+                ImGui.text("No samples yet")
+            }
+            return
+        }
+        if (ImGui.beginChild("NodeProfile", 0f, 180f, true, 0)) {
+            ImGui.text(String.format(Locale.US, "%-10s %-26s %-6s %10s %10s %10s %10s %10s", "State", "Node", "Kind", "Count", "Mean us", "p50 us", "p99 us", "Total ms"))
+            ImGui.separator()
+            for (row in rows) {
+                ImGui.text(
+                    String.format(
+                        Locale.US, "%-10s %-26s %-6s %,10d %10.1f %10.1f %10.1f %,10.1f",
+                        row.state.take(10), row.name.take(26), row.kind.name.lowercase(Locale.ROOT), row.count,
+                        row.meanNanos / 1_000.0, row.p50Nanos / 1_000.0, row.p99Nanos / 1_000.0, row.totalMillis
+                    )
+                )
+            }
+        }
+        ImGui.endChild()
+    }
+
     private fun drawDebug() {
         ImGui.text("Debug")
         ImGui.separator()
@@ -1643,6 +1704,67 @@ class UberChopGUI(private val script: UberChop) : ImGuiUI() {
         ImGui.text("Runtime: ${script.formattedRuntime()}")
         ImGui.text("Logs chopped: ${formatNumber(script.logsChopped)} (${formatNumber(script.logsPerHour())} /h)")
         ImGui.text("XP gained: ${formatNumber(script.woodcuttingXpGained())} (${formatNumber(script.woodcuttingXpPerHour())} /h)")
+        ImGui.text("Backpack model: ${script.backpackFreeSlots()} free slots  |  Mismatches ${formatNumber(script.backpackModelMismatches())} / ${formatNumber(script.backpackModelReconciliations())} reconciles")
+        val persistence = script.persistenceMetrics()
+        ImGui.text(
+            "Saves: ${formatNumber(persistence.saves)} (${formatNumber(persistence.coalesced)} coalesced, ${persistence.failures} failed)  |  " +
+                String.format(Locale.US, "last %.1f ms, avg %.1f ms, max %.1f ms", persistence.lastLatencyMs, persistence.averageLatencyMs, persistence.maxLatencyMs)
+        )
+        val journal = script.journalMetrics()
+        ImGui.text("Stats journal: ${formatNumber(journal.records)} records in ${formatNumber(journal.frames)} fsyncs, ${formatNumber(journal.journalBytes)} bytes, ${journal.compactions} compactions")
+        val routes = script.routeCacheMetrics()
+        ImGui.text(
+            String.format(
+                Locale.US,
+                "Route cache: %.0f%% hit (%,d/%,d), %,d prefetched, %,d invalidated  |  resolve avg %.1f ms, saved %.0f ms",
+                routes.hitRate * 100.0, routes.hits, routes.hits + routes.misses, routes.prefetched, routes.invalidations,
+                routes.averageResolveMs, routes.savedMs
+            )
+        )
+        val navigation = script.navigationMetrics()
+        ImGui.text("Navigation: ${formatNumber(navigation.trips)} trips, ${formatNumber(navigation.plans)} plans (${formatNumber(navigation.replans)} re-plans), ${formatNumber(navigation.steps)} steps")
+        val trees = script.treeSchedulerMetrics()
+        ImGui.text(
+            String.format(
+                Locale.US,
+                "Tree scheduler: %d/%d standing, %,d depletions, %,d respawns seen (avg %.1f s)",
+                trees.available, trees.tracked, trees.depletions, trees.respawnsObserved, trees.averageRespawnMs / 1000.0
+            )
+        )
+        val (treeScans, treeScanSkips) = script.treeScanCounts()
+        ImGui.text("Tree scans: ${formatNumber(treeScans)} run, ${formatNumber(treeScanSkips)} skipped")
+        val bankVisits = script.bankVisitMetrics()
+        if (bankVisits.isNotEmpty()) {
+            ImGui.text(
+                "Bank visits: " + bankVisits.entries.joinToString("  |  ") { (location, visits) ->
+                    String.format(Locale.US, "%s %,d visits, avg %.1f ticks (last %d, max %d)", location, visits.visits, visits.averageTicks, visits.lastTicks, visits.maxTicks)
+                }
+            )
+        }
+        ImGui.text("Bank index: ${script.bankIndexSource().name.lowercase()}, ${formatNumber(script.bankIndexSlots())} slots")
+        val woodBox = Equipment.woodBox.contents()
+        ImGui.text(
+            "Wood box: " + when {
+                woodBox == null -> "unknown until emptied"
+                woodBox.isEmpty() -> "empty"
+                else -> woodBox.entries.joinToString(", ") { (name, count) -> "$name $count/${Equipment.woodBox.capacity(name)}" }
+            }
+        )
+        val nests = script.birdNestIndexMetrics()
+        ImGui.text("Nest index: ${formatNumber(nests.scans)} scans, ${formatNumber(nests.skippedTicks)} ticks skipped, ${nests.distinctNames} names cached")
+        val varWatch = script.varWatchMetrics()
+        ImGui.text("Var watch: ${varWatch.watched} vars, ${formatNumber(varWatch.reads)} reads over ${formatNumber(varWatch.polls)} polls, ${formatNumber(varWatch.deferredSkips)} deferred, ${varWatch.failures} failed")
+        val tables = script.decisionTableMetrics()
+        if (tables.isNotEmpty()) {
+            ImGui.text(
+                "Decision tables: " + tables.entries.joinToString("  |  ") { (state, table) ->
+                    String.format(Locale.US, "%s %.1f conditions/tick -> %s", state, table.conditionsPerSelection, table.lastLeaf ?: "-")
+                }
+            )
+        }
+        val reflection = ReflectiveBinder.metrics()
+        ImGui.text("Reflection cache: ${formatNumber(reflection.hits)} hits, ${formatNumber(reflection.negativeHits)} cached misses, ${formatNumber(reflection.misses)} lookups, ${reflection.failures} failed binds")
+        drawNodeProfile()
 
         val player = runCatching { LocalPlayer.self() }.getOrNull()
         if (player != null) {
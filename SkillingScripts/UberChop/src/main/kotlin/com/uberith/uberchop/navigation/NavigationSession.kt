@@ -0,0 +1,103 @@
+package com.uberith.uberchop.navigation
+
+import botwithus.navigation.api.NavPath
+import botwithus.navigation.api.State as NavState
+import net.botwithus.rs3.world.Coordinate
+import org.slf4j.LoggerFactory
+
+/**
+ * Keeps one [NavPath] alive across ticks for the current destination.
+ *
+ * [step] plans through [RouteCache] only when there is no live path or the destination changed,
+ * then calls process() and reports the path's state. While the path reports CONTINUE it is simply
+ * polled again next tick; NO_PATH/FAILED drop it (and its cache entry) so the next step re-plans,
+ * and FINISHED ends the session. Every plan gets an unused path from the cache, never one an
+ * earlier trip walked. Driven from the tick thread only.
+ */
+class NavigationSession(private val routes: RouteCache) {
+
+    data class Metrics(
+        val trips: Long,
+        val plans: Long,
+        val replans: Long,
+        val steps: Long
+    )
+
+    private val logger = LoggerFactory.getLogger(NavigationSession::class.java)
+    private var path: NavPath? = null
+    private var destination: Coordinate? = null
+    private var plannedFrom: Coordinate? = null
+    // Where the last path to [destination] finished; stepping again from there needs no new plan.
+    private var finishedAt: Coordinate? = null
+
+    @Volatile private var trips = 0L
+    @Volatile private var plans = 0L
+    @Volatile private var replans = 0L
+    @Volatile private var steps = 0L
+
+    /** Destination of the live path, or null when idle. */
+    val activeDestination: Coordinate?
+        get() = if (path != null) destination else null
+
+    val isActive: Boolean
+        get() = path != null
+
+    fun step(origin: Coordinate?, target: Coordinate): NavState {
+        if (target != destination) {
+            path = null
+            destination = target
+            plannedFrom = null
+            finishedAt = null
+            trips++
+        }
+        if (path == null && finishedAt != null && origin == finishedAt) {
+            return NavState.FINISHED
+        }
+        val current = path ?: plan(origin, target) ?: return NavState.NO_PATH
+
+        val state = runCatching {
+            current.process()
+            current.state()
+        }.onFailure { error ->
+            logger.warn("[NavigationSession] process failed towards {}: {}", target, error.message)
+        }.getOrNull() ?: NavState.FAILED
+        steps++
+
+        when (state) {
+            NavState.NO_PATH, NavState.FAILED -> {
+                routes.invalidate(plannedFrom, target)
+                path = null
+            }
+            NavState.FINISHED -> {
+                // The route worked; a later step to the same target starts a fresh plan, not a replan.
+                path = null
+                plannedFrom = null
+                finishedAt = origin
+            }
+            else -> {}
+        }
+        return state
+    }
+
+    /** Drops the live path, e.g. when the state machine leaves the walking branch. */
+    fun cancel() {
+        path = null
+        destination = null
+        plannedFrom = null
+        finishedAt = null
+    }
+
+    fun metrics(): Metrics = Metrics(trips, plans, replans, steps)
+
+    private fun plan(origin: Coordinate?, target: Coordinate): NavPath? {
+        if (plannedFrom != null) {
+            replans++
+        }
+        plans++
+        plannedFrom = origin
+        finishedAt = null
+        val resolved = routes.route(origin, target)
+        path = resolved
+        return resolved
+    }
+}
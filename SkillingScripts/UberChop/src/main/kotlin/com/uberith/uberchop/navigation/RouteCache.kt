@@ -0,0 +1,175 @@
+package com.uberith.uberchop.navigation
+
+import botwithus.navigation.api.NavPath
+import org.slf4j.LoggerFactory
+import net.botwithus.rs3.world.Coordinate
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+
+/**
+ * Pre-resolved [NavPath]s keyed by the 64x64 region the player started in and the destination tile.
+ *
+ * A [NavPath] carries its walk progress, so each cached path is handed out once. [route] takes the
+ * spare for its key and queues a fresh resolve on the prefetch thread. The next trip from the same
+ * region then starts on an unused path without paying for the resolve on the tick. Callers
+ * [invalidate] a key when its path reports NO_PATH/FAILED. [prefetch] fills spares ahead of the
+ * first trip after a location change. [close] stops the prefetch thread.
+ */
+class RouteCache(
+    private val maxEntries: Int = 32,
+    private val resolver: (Coordinate) -> NavPath? = { NavPath.resolve(it) }
+) {
+
+    data class Metrics(
+        val hits: Long,
+        val misses: Long,
+        val prefetched: Long,
+        val invalidations: Long,
+        val averageResolveMs: Double,
+        val savedMs: Double
+    ) {
+        val hitRate: Double
+            get() = if (hits + misses == 0L) 0.0 else hits.toDouble() / (hits + misses)
+    }
+
+    private data class Key(val regionX: Int, val regionY: Int, val plane: Int, val destination: Coordinate)
+
+    private class Entry(val path: NavPath, val resolveNanos: Long)
+
+    private val logger = LoggerFactory.getLogger(RouteCache::class.java)
+    private val lock = Any()
+    private val entries = object : LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, Entry>?): Boolean = size > maxEntries
+    }
+    private val inFlight = ConcurrentHashMap.newKeySet<Key>()
+    // Created on first use and again after [close], so a reactivated script can prefetch.
+    private var executor: ExecutorService? = null
+
+    private var hits = 0L
+    private var misses = 0L
+    private var prefetched = 0L
+    private var invalidations = 0L
+    private var resolveCount = 0L
+    private var resolveNanos = 0L
+    private var savedNanos = 0L
+
+    /**
+     * Returns an unused path from [origin]'s region to [destination]. It takes the spare or resolves
+     * on a miss, then queues the next spare. The caller owns the returned path.
+     */
+    fun route(origin: Coordinate?, destination: Coordinate): NavPath? {
+        if (origin == null) {
+            return timedResolve(destination)?.path
+        }
+        val key = keyOf(origin, destination)
+        val spare = synchronized(lock) {
+            entries.remove(key)?.also {
+                hits++
+                savedNanos += it.resolveNanos
+            } ?: run {
+                misses++
+                null
+            }
+        }
+        val resolved = spare ?: timedResolve(destination) ?: return null
+        refill(key, destination)
+        return resolved.path
+    }
+
+    fun invalidate(origin: Coordinate?, destination: Coordinate) {
+        if (origin == null) {
+            return
+        }
+        synchronized(lock) {
+            if (entries.remove(keyOf(origin, destination)) != null) {
+                invalidations++
+            }
+        }
+    }
+
+    /** Resolves a spare for any of [destinations] not yet cached for [origin]'s region on the prefetch thread. */
+    fun prefetch(origin: Coordinate?, destinations: Collection<Coordinate>) {
+        if (origin == null) {
+            return
+        }
+        for (destination in destinations) {
+            refill(keyOf(origin, destination), destination)
+        }
+    }
+
+    fun clear() {
+        synchronized(lock) {
+            entries.clear()
+        }
+    }
+
+    /** Stops the prefetch thread and drops the spares; a later [route] or [prefetch] starts a new one. */
+    fun close() {
+        val running = synchronized(lock) {
+            entries.clear()
+            executor.also { executor = null }
+        }
+        running?.shutdownNow()
+        inFlight.clear()
+    }
+
+    fun metrics(): Metrics = synchronized(lock) {
+        Metrics(
+            hits = hits,
+            misses = misses,
+            prefetched = prefetched,
+            invalidations = invalidations,
+            averageResolveMs = if (resolveCount == 0L) 0.0 else resolveNanos.toDouble() / resolveCount / 1_000_000.0,
+            savedMs = savedNanos / 1_000_000.0
+        )
+    }
+
+    private fun refill(key: Key, destination: Coordinate) {
+        val cached = synchronized(lock) { entries.containsKey(key) }
+        if (cached || !inFlight.add(key)) {
+            return
+        }
+        val task = Runnable {
+            try {
+                val resolved = timedResolve(destination)
+                if (resolved != null) {
+                    synchronized(lock) {
+                        entries.putIfAbsent(key, resolved)
+                        prefetched++
+                    }
+                }
+            } finally {
+                inFlight.remove(key)
+            }
+        }
+        try {
+            synchronized(lock) {
+                executor ?: Executors.newSingleThreadExecutor { runnable ->
+                    Thread(runnable, "UberChop-route-prefetch").apply { isDaemon = true }
+                }.also { executor = it }
+            }.execute(task)
+        } catch (_: RejectedExecutionException) {
+            // Closed between the lookup and the submit; the next trip resolves on the tick instead.
+            inFlight.remove(key)
+        }
+    }
+
+    private fun timedResolve(destination: Coordinate): Entry? {
+        val started = System.nanoTime()
+        val path = runCatching { resolver(destination) }
+            .onFailure { error -> logger.warn("[RouteCache] resolve to {} failed: {}", destination, error.message) }
+            .getOrNull()
+            ?: return null
+        val elapsed = System.nanoTime() - started
+        synchronized(lock) {
+            resolveCount++
+            resolveNanos += elapsed
+        }
+        return Entry(path, elapsed)
+    }
+
+    private fun keyOf(origin: Coordinate, destination: Coordinate): Key =
+        Key(origin.x shr 6, origin.y shr 6, origin.z, destination)
+}
@@ -1,15 +1,11 @@
 package com.uberith.uberchop.state
 
-import com.uberith.api.game.world.Coordinates
-import com.uberith.uberchop.Equipment
+import com.uberith.uberchop.ItemClassifier
 import com.uberith.uberchop.UberChop
-import net.botwithus.kxapi.game.inventory.Backpack
 import net.botwithus.kxapi.game.inventory.Bank
-import botwithus.navigation.api.NavPath
 import botwithus.navigation.api.State as NavState
 import net.botwithus.kxapi.permissive.dsl.BranchName
 import net.botwithus.kxapi.permissive.dsl.LeafName
-import net.botwithus.kxapi.permissive.dsl.StateBuilder
 
 class Banking(
     script: UberChop,
@@ -18,18 +14,17 @@ class Banking(
 
     constructor(script: UberChop) : this(script, BotState.BANKING.description)
 
-    override fun StateBuilder<UberChop>.create() {
+    override fun DecisionTreeBuilder.define() {
+        // Planned once per selection; RunBankVisit starts from the same plan NeedsBanking judged.
+        val depositPlan = input { bot.planDeposits() }
+
         branch(BranchName("NeedsBanking"), condition = {
-            val needsWoodBox = bot.shouldUseWoodBox && (
-                !Equipment.hasWoodBox() ||
-                    (bot.woodBoxWithdrawAttempted && !bot.woodBoxWithdrawSucceeded)
-            )
+            val needsWoodBox = bot.needsWoodBoxFromBank()
             val needsJuju = bot.needsJujuRestock()
-            val shouldBankLogs = bot.logHandlingPreference != UberChop.LogHandling.FLETCH &&
-                Backpack.contains(bot.logPattern)
-            val shouldBankNests = bot.settings.pickupNests && Backpack.contains(bot.birdNestPattern)
-            shouldBankLogs ||
-                shouldBankNests ||
+            // Juju vials ride along on a visit but do not start one.
+            val plan = depositPlan.value
+            plan.deposits(ItemClassifier.LOG or ItemClassifier.BIRD_NEST) ||
+                plan.includesFiltered ||
                 needsWoodBox ||
                 needsJuju
         }) {
@@ -37,16 +32,16 @@ class Banking(
             onFailure(LeafName("SwitchToChopping"))
         }
 
-        branch(BranchName("BankIsOpen"), condition = {
-            Bank.isOpen()
+        branch(BranchName("BankIsOpen"), cost = 1, condition = {
+            bot.snapshot.bankOpen
         }) {
-            onSuccess(BranchName("ShouldDepositLogs"))
+            onSuccess(LeafName("RunBankVisit"))
             onFailure(BranchName("NearBank"))
         }
 
         branch(BranchName("NearBank"), condition = {
             val bankTile = bot.bankTile
-            bankTile == null || Coordinates.isPlayerWithinRadius(bankTile, 5)
+            bankTile == null || bot.snapshot.isPlayerWithinRadius(bankTile, 5)
         }) {
             onSuccess(LeafName("OpenBank"))
             onFailure(LeafName("StepToBank"))
@@ -59,7 +54,7 @@ class Banking(
                 return@leaf
             }
 
-            if (Coordinates.isPlayerWithinRadius(bankTile, 5)) {
+            if (bot.snapshot.isPlayerWithinRadius(bankTile, 5)) {
                 return@leaf
             }
 
@@ -73,24 +68,8 @@ class Banking(
 
             try {
                 bot.updateStatus("Walking to bank")
-                val navPath = runCatching { NavPath.resolve(bankTile) }
-                    .onFailure { error -> bot.warn("StepToBank: NavPath.resolve failed ${error.message}") }
-                    .getOrNull()
-                    ?: run {
-                        bot.scheduleNavigationRetry(NavState.FAILED)
-                        return@leaf
-                    }
-
-                val navState = runCatching {
-                    navPath.process()
-                    navPath.state()
-                }.onFailure { error ->
-                    bot.warn("StepToBank: navigation process failed ${error.message}")
-                }.getOrNull() ?: run {
-                    bot.scheduleNavigationRetry(NavState.FAILED)
-                    return@leaf
-                }
-
+                // The session keeps the path across ticks and only re-plans on failure or a new destination.
+                val navState = bot.navigation.step(bot.snapshot.playerCoordinate, bankTile)
                 bot.scheduleNavigationRetry(navState)
 
                 when (navState) {
@@ -106,245 +85,66 @@ class Banking(
         // Attempt to open the nearest bank chest or booth.
         leaf(LeafName("OpenBank")) {
             val bankTile = bot.bankTile
-            if (bankTile != null && !Coordinates.isPlayerWithinRadius(bankTile, 5)) {
+            if (bankTile != null && !bot.snapshot.isPlayerWithinRadius(bankTile, 5)) {
                 bot.debug("OpenBank: not within 5 tiles of bank; stepping closer")
                 return@leaf
             }
 
             bot.updateStatus("Opening bank")
-            runCatching { Bank.open(bot) }
+            bot.markBankVisitStart()
+            val opened = runCatching { Bank.open(bot) }
                 .onFailure { bot.warn("Bank open failed: ${it.message}") }
-        }
-
-        branch(BranchName("ShouldDepositLogs"), condition = {
-            bot.logHandlingPreference != UberChop.LogHandling.FLETCH &&
-                Backpack.contains(bot.logPattern)
-        }) {
-            onSuccess(LeafName("DepositLogs"))
-            onFailure(BranchName("ShouldDepositNests"))
-        }
-
-        branch(BranchName("ShouldDepositNests"), condition = {
-            bot.settings.pickupNests && Backpack.contains(bot.birdNestPattern)
-        }) {
-            onSuccess(LeafName("DepositBirdNests"))
-            onFailure(BranchName("ShouldDepositJujuVials"))
-        }
-        branch(BranchName("ShouldDepositJujuVials"), condition = {
-            bot.shouldDepositJujuVials()
-        }) {
-            onSuccess(LeafName("DepositJujuVials"))
-            onFailure(BranchName("ShouldWithdrawJujuPotions"))
-        }
-
-        branch(BranchName("ShouldWithdrawJujuPotions"), condition = {
-            bot.shouldRestockJujuPotions()
-        }) {
-            onSuccess(LeafName("WithdrawJujuPotions"))
-            onFailure(BranchName("ShouldWithdrawWoodBox"))
-        }
-
-        branch(BranchName("ShouldWithdrawWoodBox"), condition = {
-            bot.shouldUseWoodBox && !Equipment.hasWoodBox() && bot.canAttemptWoodBoxWithdraw()
-        }) {
-            onSuccess(LeafName("WithdrawWoodBox"))
-            onFailure(BranchName("AwaitWoodBox"))
-        }
-
-        branch(BranchName("AwaitWoodBox"), condition = {
-            bot.shouldUseWoodBox && !Equipment.hasWoodBox()
-        }) {
-            onSuccess(LeafName("WaitForWoodBox"))
-            onFailure(LeafName("SwitchToChopping"))
-        }
-
-        // Dump any matching log items, then let chopping try again.
-        leaf(LeafName("DepositLogs")) {
-            if (!Backpack.contains(bot.logPattern)) {
-                return@leaf
-            }
-
-            val emptiedWoodBox = Equipment.hasWoodBox() && Equipment.emptyWoodBox(bot)
-            if (emptiedWoodBox) {
-                bot.updateStatus("Emptying wood box")
-                bot.delay(5)
-            }
-
-            bot.updateStatus("Depositing logs")
-
-            val matchingItems = Backpack.getItems()
-                .filter { item -> bot.logPattern.matcher(item.name).find() }
-                .map { item -> "${item.name} (id=${item.id})" }
-            val sample = matchingItems.take(5).joinToString()
-            bot.debug(
-                "DepositLogs: bankOpen=${Bank.isOpen()} matches=${matchingItems.size} sample=[$sample]"
-            )
-
-            var depositResult = runCatching { Bank.depositAll(bot, bot.logPattern) }
-                .onFailure { error -> bot.warn("DepositLogs: depositAll(pattern) threw ${error.message}") }
-                .getOrElse { false }
-
-            var stillContainsLogs = Backpack.contains(bot.logPattern)
-            bot.debug(
-                "DepositLogs: depositAll(pattern) -> $depositResult; stillContains=$stillContainsLogs"
-            )
-            if (stillContainsLogs) {
-                val fallbackWorked = bot.depositLogsFallback()
-                if (fallbackWorked) {
-                    bot.debug("DepositLogs: fallback backpack interactions triggered")
-                    depositResult = true
-                    bot.delay(5)
-                }
-                stillContainsLogs = Backpack.contains(bot.logPattern)
-                if (stillContainsLogs) {
-                    bot.warn("DepositLogs: backpack still has log-pattern items after all deposit attempts")
-                }
+                .getOrDefault(false)
+            if (opened) {
+                // Stay in the leaf until the interface is up so the next tick does not click the booth again.
+                bot.awaits.awaitBankOpen(5)
             }
-
-            val booleanValue = !Backpack.isFull()
-            val callableBoolean: () -> Boolean = { booleanValue }
-            bot.delayUntil(callableBoolean, 10)
-
-            bot.chopWorkedLastTick = false
         }
 
-        leaf(LeafName("DepositBirdNests")) {
-            if (!bot.settings.pickupNests) {
-                return@leaf
-            }
-            if (!Backpack.contains(bot.birdNestPattern)) {
-                return@leaf
-            }
-
-            bot.updateStatus("Depositing bird nests")
-
-            var nestsDeposited = runCatching { Bank.depositAll(bot, bot.birdNestPattern) }
-                .onFailure { error -> bot.warn("DepositBirdNests: depositAll(bird nests) threw ${error.message}") }
-                .getOrElse { false }
-            var stillHasNests = Backpack.contains(bot.birdNestPattern)
-            bot.debug(
-                "DepositBirdNests: depositAll -> $nestsDeposited; stillContains=$stillHasNests"
-            )
-            bot.delay(1)
-            if (stillHasNests) {
-                var fallbackAttempts = 0
-                while (stillHasNests && fallbackAttempts < 5) {
-                    val fallbackWorked = bot.depositItemsFallback(bot.birdNestPattern)
-                    if (!fallbackWorked) {
-                        bot.debug("DepositBirdNests: fallback attempt ${fallbackAttempts + 1} made no progress")
-                        break
-                    }
-                    nestsDeposited = true
-                    fallbackAttempts++
-                    stillHasNests = Backpack.contains(bot.birdNestPattern)
-                    bot.debug(
-                        "DepositBirdNests: fallback attempt $fallbackAttempts stillContains=$stillHasNests"
-                    )
-                    bot.delay(1)
-                }
-                if (stillHasNests) {
-                    bot.warn("DepositBirdNests: backpack still has bird nests after all deposit attempts")
-                }
-            }
-
-            val booleanValue = !Backpack.isFull()
-            val callableBoolean: () -> Boolean = { booleanValue }
-            bot.delayUntil(callableBoolean, 10)
-
+        // The whole visit in one pass: each step waits for its inventory events before the next goes out.
+        leaf(LeafName("RunBankVisit")) {
+            bot.markBankVisitStart()
+            val plan = bot.planBankVisit(depositPlan.value)
+            bot.debug("RunBankVisit: $plan")
             bot.chopWorkedLastTick = false
-        }
 
-        leaf(LeafName("DepositJujuVials")) {
-            if (!bot.settings.useJujuPotions) {
-                return@leaf
-            }
-            if (!Backpack.contains(bot.jujuVialPattern)) {
-                return@leaf
-            }
-
-            bot.updateStatus("Depositing juju vials")
-            var deposited = runCatching { Bank.depositAll(bot, bot.jujuVialPattern) }
-                .onFailure { error -> bot.warn("DepositJujuVials: depositAll threw ${error.message}") }
-                .getOrElse { false }
-            var stillHasVials = Backpack.contains(bot.jujuVialPattern)
-            if (!deposited && stillHasVials) {
-                deposited = bot.depositItemsFallback(bot.jujuVialPattern)
-                stillHasVials = Backpack.contains(bot.jujuVialPattern)
+            val deposit = plan.deposit
+            // What is still left to deposit; only re-planned while waiting for deposits to land.
+            var remaining = deposit
+            if (!deposit.isEmpty) {
+                bot.updateStatus(if (deposit.deposits(ItemClassifier.LOG)) "Depositing logs" else "Depositing items")
+                if (bot.executeDepositPlan(deposit)) {
+                    bot.awaits.awaitUntil(3, "deposits") { bot.planDeposits().also { remaining = it }.isEmpty }
+                } else {
+                    bot.warn("RunBankVisit: no deposit interaction went through")
+                }
             }
-            if (stillHasVials) {
-                bot.warn("DepositJujuVials: backpack still has juju vials after attempts")
+            if (plan.jujuWithdraw > 0) {
+                bot.updateStatus("Withdrawing juju potions")
+                if (!bot.attemptJujuWithdraw(plan.jujuWithdraw)) {
+                    bot.warn("RunBankVisit: failed to withdraw juju potions from bank")
+                }
             }
-            if (deposited) {
-                bot.delay(1)
+            if (plan.withdrawWoodBox) {
+                bot.updateStatus("Withdrawing wood box")
+                bot.withdrawWoodBox()
             }
-            bot.chopWorkedLastTick = false
-        }
-
 
-        leaf(LeafName("WithdrawJujuPotions")) {
-            if (!bot.settings.useJujuPotions) {
+            if (!remaining.isEmpty) {
+                // Something did not go in; the next tick plans the visit again from what is left.
                 return@leaf
             }
-            if (!bot.shouldRestockJujuPotions()) {
-                return@leaf
-            }
-            if (Backpack.isFull()) {
-                bot.warn("WithdrawJujuPotions: backpack full; cannot withdraw juju potion")
-                return@leaf
-            }
-
-            bot.updateStatus("Withdrawing juju potions")
-            val withdrew = bot.attemptJujuWithdraw()
-            if (!withdrew) {
-                bot.warn("WithdrawJujuPotions: failed to withdraw juju potions from bank")
-            } else {
+            if (!plan.close || bot.needsWoodBoxFromBank() || bot.shouldStayAtBankForJuju()) {
+                bot.updateStatus("Waiting at bank")
                 bot.delay(1)
-            }
-            bot.chopWorkedLastTick = false
-        }
-        leaf(LeafName("WithdrawWoodBox")) {
-            if (!bot.shouldUseWoodBox) {
-                return@leaf
-            }
-
-            bot.woodBoxWithdrawAttempted = false
-            bot.woodBoxWithdrawSucceeded = false
-
-            if (Equipment.hasWoodBox()) {
-                bot.recordWoodBoxWithdraw(true)
                 return@leaf
             }
-            if (Backpack.isFull()) {
-                bot.warn("WithdrawWoodBox: backpack is full; cannot withdraw wood box")
-                bot.recordWoodBoxWithdraw(false)
-                return@leaf
-            }
-
-            bot.updateStatus("Withdrawing wood box")
-
-            val withdrew = runCatching { Bank.withdraw(bot.woodBoxPattern, 1) }
-                .onFailure { error -> bot.warn("WithdrawWoodBox: withdraw threw ${error.message}") }
-                .getOrElse { false }
-
-            if (!withdrew) {
-                bot.warn("WithdrawWoodBox: failed to withdraw wood box from bank")
-                bot.recordWoodBoxWithdraw(false)
-            } else {
-                bot.recordWoodBoxWithdraw(true)
-                bot.delay(1)
-            }
-
-            bot.chopWorkedLastTick = false
-        }
-
-        leaf(LeafName("WaitForWoodBox")) {
-            bot.updateStatus("Waiting for wood box availability")
-            bot.delay(1)
+            leaveBank()
         }
 
         // Fall back to chopping when there is nothing left to bank.
         leaf(LeafName("SwitchToChopping")) {
-            if (bot.shouldUseWoodBox && !Equipment.hasWoodBox()) {
+            if (bot.needsWoodBoxFromBank()) {
                 bot.debug("SwitchToChopping: still waiting for wood box")
                 return@leaf
             }
@@ -352,26 +152,31 @@ class Banking(
                 bot.debug("SwitchToChopping: waiting for juju potions")
                 return@leaf
             }
-            if (Bank.isOpen()) {
-                bot.updateStatus("Closing bank")
-                runCatching { Bank.close() }
-                    .onFailure { error -> bot.warn("SwitchToChopping: Bank.close() threw ${error.message}") }
-            }
-            bot.woodBoxWithdrawAttempted = false
-            bot.woodBoxWithdrawSucceeded = false
-            val shouldFletch = bot.logHandlingPreference == UberChop.LogHandling.FLETCH &&
-                Backpack.contains(bot.logPattern)
-            val nextState = if (shouldFletch) BotState.FLETCHING else BotState.CHOPPING
-            val reason = if (shouldFletch) {
-                "Resume fletching logs"
-            } else {
-                "Backpack clear"
-            }
-            bot.switchState(nextState, reason)
-            bot.chopWorkedLastTick = false
+            leaveBank()
         }
 
         root(BranchName("NeedsBanking"))
     }
 
+    private fun leaveBank() {
+        if (bot.snapshot.bankOpen) {
+            bot.updateStatus("Closing bank")
+            runCatching { Bank.close() }
+                .onFailure { error -> bot.warn("Banking: Bank.close() threw ${error.message}") }
+        }
+        bot.finishBankVisit()
+        bot.woodBoxWithdrawAttempted = false
+        bot.woodBoxWithdrawSucceeded = false
+        val shouldFletch = bot.logHandlingPreference == UberChop.LogHandling.FLETCH &&
+            bot.snapshot.contains(ItemClassifier.LOG)
+        val nextState = if (shouldFletch) BotState.FLETCHING else BotState.CHOPPING
+        val reason = if (shouldFletch) {
+            "Resume fletching logs"
+        } else {
+            "Backpack clear"
+        }
+        bot.switchState(nextState, reason)
+        bot.chopWorkedLastTick = false
+    }
+
 }
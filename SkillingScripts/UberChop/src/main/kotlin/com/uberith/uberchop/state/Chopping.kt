@@ -1,17 +1,14 @@
 package com.uberith.uberchop.state
 
 import com.uberith.uberchop.Equipment
-import com.uberith.api.game.world.Coordinates
+import com.uberith.uberchop.ItemClassifier
 import com.uberith.uberchop.UberChop
-import botwithus.navigation.api.NavPath
 import botwithus.navigation.api.State as NavState
-import net.botwithus.rs3.entities.LocalPlayer
 import net.botwithus.kxapi.game.inventory.Backpack
 import net.botwithus.kxapi.game.skilling.impl.woodcutting.woodcutting
 import net.botwithus.kxapi.game.skilling.skilling
 import net.botwithus.kxapi.permissive.dsl.BranchName
 import net.botwithus.kxapi.permissive.dsl.LeafName
-import net.botwithus.kxapi.permissive.dsl.StateBuilder
 
 class Chopping(
     script: UberChop,
@@ -20,16 +17,16 @@ class Chopping(
 
     constructor(script: UberChop) : this(script, BotState.CHOPPING.description)
 
-    override fun StateBuilder<UberChop>.create() {
+    override fun DecisionTreeBuilder.define() {
         branch(BranchName("NeedsWoodBox"), condition = {
-            bot.shouldUseWoodBox && !Equipment.hasWoodBox()
+            bot.needsWoodBoxFromBank()
         }) {
             onSuccess(LeafName("SwitchToBankForWoodBox"))
             onFailure(BranchName("BackpackIsFull"))
         }
 
         // Stop swinging when the pack is full so the banking tree can take over.
-        branch(BranchName("BackpackIsFull"), condition = { Backpack.isFull() }) {
+        branch(BranchName("BackpackIsFull"), cost = 1, condition = { bot.snapshot.backpackFull }) {
             onSuccess(LeafName("HandleFullBackpack"))
             onFailure(BranchName("NeedsJujuPotion"))
         }
@@ -50,10 +47,11 @@ class Chopping(
 
         // Only attempt to chop when the target tile is within a short walking radius.
         branch(BranchName("TreeIsReachable"), condition = {
-            if (bot.treeTile == null) {
+            val treeTile = bot.treeTile
+            if (treeTile == null) {
                 true
             } else {
-                val distance = Coordinates.distanceToPlayer(bot.treeTile!!)
+                val distance = bot.snapshot.distanceTo(treeTile)
                 distance == null || distance <= 12.0
             }
         }) {
@@ -62,14 +60,13 @@ class Chopping(
         }
 
         branch(BranchName("AlreadyChopping"), condition = {
-            val currentAnim = LocalPlayer.self()?.animationId ?: -1
-            currentAnim != -1 && bot.chopWorkedLastTick
+            bot.snapshot.animationId != -1 && bot.chopWorkedLastTick
         }) {
             onSuccess(LeafName("MaintainChopping"))
             onFailure(LeafName("StartChopping"))
         }
 
-        // Small placeholder move step; keep the UI updated while navigation logic is pending.
+        // Walk towards the tree tile through the shared navigation session.
         leaf(LeafName("StepToTree")) {
             val treeTile = bot.treeTile
             if (treeTile == null) {
@@ -77,11 +74,12 @@ class Chopping(
                 return@leaf
             }
 
-            if (LocalPlayer.self().isMoving || LocalPlayer.self().animationId != -1) {
+            // Movement from our own live path keeps being driven; anything else is left to finish.
+            if (!bot.navigation.isActive && (bot.snapshot.isMoving || bot.snapshot.animationId != -1)) {
                 return@leaf
             }
 
-            if (Coordinates.isPlayerWithinRadius(treeTile, 3)) {
+            if (bot.snapshot.isPlayerWithinRadius(treeTile, 3)) {
                 return@leaf
             }
 
@@ -98,24 +96,8 @@ class Chopping(
                 bot.updateStatus("Moving to $targetName")
                 bot.chopWorkedLastTick = false
 
-                val navPath = runCatching { NavPath.resolve(treeTile) }
-                    .onFailure { error -> bot.warn("StepToTree: NavPath.resolve failed ${error.message}") }
-                    .getOrNull()
-                    ?: run {
-                        bot.scheduleNavigationRetry(NavState.FAILED)
-                        return@leaf
-                    }
-
-                val navState = runCatching {
-                    navPath.process()
-                    navPath.state()
-                }.onFailure { error ->
-                    bot.warn("StepToTree: navigation process failed ${error.message}")
-                }.getOrNull() ?: run {
-                    bot.scheduleNavigationRetry(NavState.FAILED)
-                    return@leaf
-                }
-
+                // The session keeps the path across ticks and only re-plans on failure or a new destination.
+                val navState = bot.navigation.step(bot.snapshot.playerCoordinate, treeTile)
                 bot.scheduleNavigationRetry(navState)
 
                 when (navState) {
@@ -154,20 +136,40 @@ class Chopping(
             bot.chopWorkedLastTick = true
         }
 
-        // Swing at the tree again when we either just moved or a new action is needed.
+        // Swing at the scheduled tree, or walk to the next respawn when every tree is down.
         leaf(LeafName("StartChopping")) {
             val treeName = bot.targetTree.ifBlank { "Tree" }
-            val player = LocalPlayer.self()
-            if (player == null) {
+            if (!bot.snapshot.playerAvailable) {
                 bot.warn("StartChopping: no local player instance available")
                 return@leaf
             }
-            if (player.isMoving) {
+            if (bot.snapshot.isMoving) {
                 bot.debug("StartChopping: player still moving; deferring new swing")
                 return@leaf
             }
             bot.chopWorkedLastTick = false
+            val target = bot.treeScheduler.next(bot.snapshot.playerCoordinate)
+            if (target != null && !target.available) {
+                val seconds = (target.respawnInMs + 999) / 1000
+                if (bot.shouldFletchInGap(target)) {
+                    bot.startGapFletching("Fletching while $treeName respawns (~${seconds}s)")
+                    return@leaf
+                }
+                bot.updateStatus("Waiting for $treeName respawn (~${seconds}s)")
+                // Cover the walk while the stump is still down so the first swing lands on respawn.
+                val approach = target.approachTile(bot.treeTile ?: bot.snapshot.playerCoordinate ?: target.tile)
+                if (!bot.snapshot.isPlayerWithinRadius(approach, 1) && bot.canAttemptNavigation()) {
+                    bot.scheduleNavigationRetry(bot.navigation.step(bot.snapshot.playerCoordinate, approach))
+                }
+                return@leaf
+            }
+
             bot.updateStatus("Chopping $treeName")
+            if (target != null && bot.chopTreeAt(target.tile)) {
+                bot.chopWorkedLastTick = true
+                bot.awaits.awaitAnimation(CHOP_START_TIMEOUT_TICKS)
+                return@leaf
+            }
             val started = runCatching {
                 bot.skilling.woodcutting.chop(treeName).nearest()
             }.onFailure {
@@ -175,7 +177,9 @@ class Chopping(
             }.getOrDefault(false)
             bot.chopWorkedLastTick = started
             if (started) {
-                bot.delay(1)
+                bot.awaits.awaitAnimation(CHOP_START_TIMEOUT_TICKS)
+            } else if (target == null && bot.shouldFletchInGap(null)) {
+                bot.startGapFletching("Fletching while no $treeName is in reach")
             }
         }
 
@@ -185,25 +189,28 @@ class Chopping(
         }
 
         // Hand control to the banking state when the inventory is capped.
+        // The wood box model says up front whether Fill can free space; a box known to be full goes straight to the bank.
         leaf(LeafName("HandleFullBackpack")) {
-            var waitedAfterFill = false
-            if (bot.shouldUseWoodBox && Equipment.hasWoodBox()) {
-                bot.updateStatus("Filling wood box")
-                val filled = runCatching { Equipment.fillWoodBox(bot) }
-                    .onFailure { error -> bot.warn("HandleFullBackpack: fillWoodBox failed ${error.message}") }
-                    .getOrDefault(false)
-
-                if (filled) {
-                    bot.chopWorkedLastTick = false
-                    repeat(3) { attempt ->
-                        bot.delay(1)
-                        waitedAfterFill = true
-                        if (!Backpack.isFull()) {
-                            bot.debug("HandleFullBackpack: wood box fill freed space after ${attempt + 1} tick(s)")
+            val logName = bot.backpackModel.first(ItemClassifier.LOG)?.name
+            if (bot.shouldUseWoodBox && logName != null && bot.hasWoodBox()) {
+                if (Equipment.woodBox.canAccept(logName)) {
+                    bot.updateStatus("Filling wood box")
+                    val filled = runCatching { Equipment.fillWoodBox(bot) }
+                        .onFailure { error -> bot.warn("HandleFullBackpack: fillWoodBox failed ${error.message}") }
+                        .getOrDefault(false)
+
+                    if (filled) {
+                        bot.chopWorkedLastTick = false
+                        val freed = bot.awaits.awaitBackpackNotFull(3)
+                        val moved = Equipment.woodBox.endFill(logName)
+                        if (freed) {
+                            bot.debug("HandleFullBackpack: wood box took $moved $logName")
                             return@leaf
                         }
+                        bot.debug("HandleFullBackpack: wood box is full of $logName")
                     }
-                    bot.warn("HandleFullBackpack: wood box filled but backpack remains full after waits")
+                } else {
+                    bot.debug("HandleFullBackpack: wood box known full of $logName; skipping fill")
                 }
             }
 
@@ -212,16 +219,6 @@ class Chopping(
                 return@leaf
             }
 
-            if (!waitedAfterFill) {
-                repeat(2) {
-                    bot.delay(1)
-                    if (!Backpack.isFull()) {
-                        bot.switchState(BotState.CHOPPING, "Backpack space freed after wait")
-                        return@leaf
-                    }
-                }
-            }
-
             if (bot.logHandlingPreference == UberChop.LogHandling.FLETCH) {
                 if (bot.hasFletchableLogs()) {
                     bot.switchState(BotState.FLETCHING, "Backpack is full")
@@ -238,4 +235,9 @@ class Chopping(
 
         root(BranchName("NeedsWoodBox"))
     }
+
+    private companion object {
+        // A swing next to the tree animates within a tick or two; past this the player is still walking over.
+        const val CHOP_START_TIMEOUT_TICKS = 3
+    }
 }
@@ -0,0 +1,176 @@
+package com.uberith.uberchop.state
+
+/**
+ * A branch/leaf tree flattened into one row per root-to-leaf path.
+ *
+ * Each row is a conjunction of (condition, expected result) literals. Rows come from a tree, so
+ * they are mutually exclusive and exactly one matches; rows are tried in tree order and the first
+ * one whose literals all hold selects the leaf. Every condition is evaluated at most once per
+ * [select], so later rows sharing a prefix only read the cached result, and inside a row literals
+ * are tried cheapest first by their declared cost. Built by [DecisionTreeBuilder]; driven from the
+ * tick thread.
+ */
+class DecisionTable internal constructor(
+    private val conditionNames: Array<String>,
+    private val conditions: Array<() -> Boolean>,
+    private val leafNames: Array<String>,
+    private val leaves: Array<() -> Unit>,
+    // Literal = condition index shl 1 | expected (1 = true); each row sorted by condition cost.
+    private val rows: Array<IntArray>,
+    private val rowLeaves: IntArray,
+    // The tree itself, for [walk]: per condition [failure, success], a condition or -(leaf + 1).
+    private val targets: IntArray,
+    private val root: Int,
+    private val epoch: TickEpoch
+) {
+
+    private companion object {
+        const val FALSE: Byte = 1
+        const val TRUE: Byte = 2
+    }
+
+    data class Metrics(
+        val rows: Int,
+        val conditions: Int,
+        val selections: Long,
+        val conditionEvaluations: Long,
+        val lastLeaf: String?
+    ) {
+        val conditionsPerSelection: Double
+            get() = if (selections == 0L) 0.0 else conditionEvaluations.toDouble() / selections
+    }
+
+    // Per-selection memo of condition results; a stale stamp means "not evaluated yet", so nothing is cleared.
+    private val results = ByteArray(conditions.size)
+    private val stamps = LongArray(conditions.size)
+
+    private var profiler: NodeProfiler? = null
+    private var conditionNodes: Array<NodeProfiler.Node> = emptyArray()
+    private var leafNodes: Array<NodeProfiler.Node> = emptyArray()
+
+    @Volatile private var selections = 0L
+    @Volatile private var conditionEvaluations = 0L
+    @Volatile private var lastLeaf = -1
+
+    /** Picks the leaf for this tick; returns its index, or -1 when no row matched. */
+    fun select(): Int {
+        val stamp = epoch.advance()
+        selections++
+        for (row in rows.indices) {
+            if (matches(rows[row], stamp)) {
+                lastLeaf = rowLeaves[row]
+                return rowLeaves[row]
+            }
+        }
+        lastLeaf = -1
+        return -1
+    }
+
+    /**
+     * Picks the leaf the way the permissive runtime walks a tree: one condition per branch from the
+     * root, with no memo and no cost order. Only the benchmarks use it, as the baseline for [select].
+     */
+    fun walk(): Int {
+        epoch.advance()
+        var node = root
+        while (node >= 0) {
+            node = targets[(node shl 1) or (if (conditions[node]()) 1 else 0)]
+        }
+        return -(node + 1)
+    }
+
+    /** Selects and runs the leaf for this tick. */
+    fun run(): String? {
+        val leaf = select()
+        if (leaf < 0) {
+            return null
+        }
+        val timing = profiler?.takeIf { it.enabled }
+        if (timing == null) {
+            leaves[leaf]()
+        } else {
+            val started = System.nanoTime()
+            try {
+                leaves[leaf]()
+            } finally {
+                leafNodes[leaf].histogram.record(System.nanoTime() - started)
+            }
+        }
+        return leafNames[leaf]
+    }
+
+    /** Registers every node with [profiler] under [state]; timings are taken while it is enabled. */
+    fun attach(profiler: NodeProfiler, state: String) {
+        conditionNodes = Array(conditionNames.size) { profiler.register(state, conditionNames[it], NodeProfiler.Kind.BRANCH) }
+        leafNodes = Array(leafNames.size) { profiler.register(state, leafNames[it], NodeProfiler.Kind.LEAF) }
+        this.profiler = profiler
+    }
+
+    fun leafName(index: Int): String? = leafNames.getOrNull(index)
+
+    fun metrics(): Metrics =
+        Metrics(rows.size, conditions.size, selections, conditionEvaluations, leafNames.getOrNull(lastLeaf))
+
+    /** One line per row, e.g. "NeedsWoodBox=false & BackpackIsFull=true -> HandleFullBackpack". */
+    fun describe(): List<String> = rows.indices.map { row ->
+        rows[row].joinToString(" & ") { literal ->
+            "${conditionNames[literal ushr 1]}=${literal and 1 == 1}"
+        } + " -> " + leafNames[rowLeaves[row]]
+    }
+
+    private fun matches(row: IntArray, stamp: Long): Boolean {
+        for (literal in row) {
+            val condition = literal ushr 1
+            if (evaluate(condition, stamp) != (literal and 1 == 1)) {
+                return false
+            }
+        }
+        return true
+    }
+
+    private fun evaluate(condition: Int, stamp: Long): Boolean {
+        if (stamps[condition] == stamp) {
+            return results[condition] == TRUE
+        }
+        val timing = profiler?.takeIf { it.enabled }
+        val value = if (timing == null) {
+            conditions[condition]()
+        } else {
+            val started = System.nanoTime()
+            try {
+                conditions[condition]()
+            } finally {
+                conditionNodes[condition].histogram.record(System.nanoTime() - started)
+            }
+        }
+        conditionEvaluations++
+        stamps[condition] = stamp
+        results[condition] = if (value) TRUE else FALSE
+        return value
+    }
+}
+
+/** Selection counter shared by a table and the [TickInput]s declared alongside it. */
+class TickEpoch {
+    // The first advance() returns 1, above the zeroed stamp arrays, so nothing reads as cached early.
+    var current = 0L
+        private set
+
+    fun advance(): Long = ++current
+}
+
+/** A value shared by several conditions, computed at most once per selection. */
+class TickInput<V> internal constructor(private val epoch: TickEpoch, private val compute: () -> V) {
+    private var stamp = -1L
+    private var cached: V? = null
+
+    val value: V
+        get() {
+            if (stamp != epoch.current) {
+                cached = compute()
+                stamp = epoch.current
+            }
+            @Suppress("UNCHECKED_CAST")
+            return cached as V
+        }
+}
@@ -0,0 +1,100 @@
+package com.uberith.uberchop.state
+
+import net.botwithus.kxapi.permissive.dsl.BranchName
+import net.botwithus.kxapi.permissive.dsl.LeafName
+
+/**
+ * Mirrors the permissive [net.botwithus.kxapi.permissive.dsl.StateBuilder] branch/leaf DSL and
+ * compiles the declared tree into a [DecisionTable].
+ *
+ * Branches may declare a [cost]; within one root-to-leaf path cheaper conditions are evaluated
+ * first, and equal costs keep tree order. Only lower the cost of conditions that are safe to
+ * evaluate in any state, because they may now run before a condition that used to guard them.
+ * [input] declares a value that several conditions share; it is computed once per selection.
+ */
+class DecisionTreeBuilder {
+
+    companion object {
+        const val DEFAULT_COST = 10
+    }
+
+    class Outcomes internal constructor() {
+        internal var success: Any? = null
+        internal var failure: Any? = null
+
+        fun onSuccess(branch: BranchName) { success = branch }
+        fun onSuccess(leaf: LeafName) { success = leaf }
+        fun onFailure(branch: BranchName) { failure = branch }
+        fun onFailure(leaf: LeafName) { failure = leaf }
+    }
+
+    private class Branch(val name: String, val cost: Int, val condition: () -> Boolean, val outcomes: Outcomes)
+
+    private val epoch = TickEpoch()
+    private val branches = LinkedHashMap<String, Branch>()
+    private val leaves = LinkedHashMap<String, () -> Unit>()
+    private var root: String? = null
+
+    fun <V> input(compute: () -> V): TickInput<V> = TickInput(epoch, compute)
+
+    fun branch(name: BranchName, cost: Int = DEFAULT_COST, condition: () -> Boolean, block: Outcomes.() -> Unit) {
+        check(name.name !in branches) { "duplicate branch ${name.name}" }
+        branches[name.name] = Branch(name.name, cost, condition, Outcomes().apply(block))
+    }
+
+    fun leaf(name: LeafName, action: () -> Unit) {
+        check(name.name !in leaves) { "duplicate leaf ${name.name}" }
+        leaves[name.name] = action
+    }
+
+    fun root(name: BranchName) {
+        root = name.name
+    }
+
+    /** Flattens the tree; fails on missing targets, cycles or a missing root. */
+    fun compile(): DecisionTable {
+        val rootName = root ?: branches.keys.firstOrNull() ?: error("decision tree has no branches")
+        val conditionIndex = branches.keys.withIndex().associate { (index, name) -> name to index }
+        val leafIndex = leaves.keys.withIndex().associate { (index, name) -> name to index }
+        val costs = branches.values.map { it.cost }.toIntArray()
+
+        val rows = ArrayList<IntArray>()
+        val rowLeaves = ArrayList<Int>()
+        // Per condition: [failure, success] targets, a condition index or -(leaf index + 1).
+        val targets = IntArray(branches.size * 2)
+        fun walk(branchName: String, path: List<Int>, visiting: Set<String>) {
+            check(branchName !in visiting) { "decision tree cycle through $branchName" }
+            val branch = branches[branchName] ?: error("unknown branch $branchName")
+            val condition = conditionIndex.getValue(branchName)
+            for ((outcome, expected) in listOf(branch.outcomes.success to 1, branch.outcomes.failure to 0)) {
+                val literals = path + ((condition shl 1) or expected)
+                when (outcome) {
+                    is BranchName -> {
+                        targets[(condition shl 1) or expected] = conditionIndex[outcome.name] ?: error("unknown branch ${outcome.name}")
+                        walk(outcome.name, literals, visiting + branchName)
+                    }
+                    is LeafName -> {
+                        val leaf = leafIndex[outcome.name] ?: error("unknown leaf ${outcome.name}")
+                        targets[(condition shl 1) or expected] = -(leaf + 1)
+                        rows += literals.sortedBy { costs[it ushr 1] }.toIntArray()
+                        rowLeaves += leaf
+                    }
+                    else -> error("branch $branchName has no ${if (expected == 1) "success" else "failure"} outcome")
+                }
+            }
+        }
+        walk(rootName, emptyList(), emptySet())
+
+        return DecisionTable(
+            conditionNames = branches.keys.toTypedArray(),
+            conditions = branches.values.map { it.condition }.toTypedArray(),
+            leafNames = leaves.keys.toTypedArray(),
+            leaves = leaves.values.toTypedArray(),
+            rows = rows.toTypedArray(),
+            rowLeaves = rowLeaves.toIntArray(),
+            targets = targets,
+            root = conditionIndex.getValue(rootName),
+            epoch = epoch
+        )
+    }
+}
@@ -1,10 +1,9 @@
 package com.uberith.uberchop.state
 
+import com.uberith.uberchop.ItemClassifier
 import com.uberith.uberchop.UberChop
-import net.botwithus.kxapi.game.inventory.Backpack
 import net.botwithus.kxapi.permissive.dsl.BranchName
 import net.botwithus.kxapi.permissive.dsl.LeafName
-import net.botwithus.kxapi.permissive.dsl.StateBuilder
 
 class Fletching(
     script: UberChop,
@@ -13,7 +12,15 @@ class Fletching(
 
     constructor(script: UberChop) : this(script, BotState.FLETCHING.description)
 
-    override fun StateBuilder<UberChop>.create() {
+    override fun DecisionTreeBuilder.define() {
+        // Fletching that only filled a respawn gap gives way as soon as a tree stands again.
+        branch(BranchName("GapClosed"), condition = {
+            bot.fletchingInGap && bot.treeAvailable()
+        }) {
+            onSuccess(LeafName("ResumeChopping"))
+            onFailure(BranchName("ReadyToFletch"))
+        }
+
         branch(BranchName("ReadyToFletch"), condition = {
             bot.logHandlingPreference == UberChop.LogHandling.FLETCH &&
                 bot.hasFletchableLogs()
@@ -23,7 +30,7 @@ class Fletching(
         }
 
         branch(BranchName("HasLogs"), condition = {
-            Backpack.contains(bot.logPattern)
+            bot.snapshot.contains(ItemClassifier.LOG)
         }) {
             onSuccess(LeafName("FletchLogs"))
             onFailure(LeafName("ReturnToChopping"))
@@ -36,8 +43,13 @@ class Fletching(
             }
         }
 
+        leaf(LeafName("ResumeChopping")) {
+            bot.switchState(BotState.CHOPPING, "Tree respawned")
+        }
+
         leaf(LeafName("ReturnToChopping")) {
-            if (Backpack.contains(bot.logPattern) &&
+            if (!bot.fletchingInGap &&
+                bot.snapshot.contains(ItemClassifier.LOG) &&
                 bot.logHandlingPreference == UberChop.LogHandling.FLETCH
             ) {
                 bot.delay(1)
@@ -46,6 +58,6 @@ class Fletching(
             bot.switchState(BotState.CHOPPING, "Backpack clear after fletching")
         }
 
-        root(BranchName("ReadyToFletch"))
+        root(BranchName("GapClosed"))
     }
 }
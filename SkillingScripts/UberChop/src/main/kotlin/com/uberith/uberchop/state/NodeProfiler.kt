@@ -0,0 +1,84 @@
+package com.uberith.uberchop.state
+
+import com.uberith.api.utils.LatencyHistogram
+import java.io.File
+import java.util.Locale
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * Invocation counts and latency histograms for every branch condition and leaf of the
+ * [DecisionTable]s attached to it.
+ *
+ * Tables register their nodes once at compile time. While [enabled] is false a table only reads
+ * that flag per node, so the cost of leaving the profiler attached is one volatile read.
+ */
+class NodeProfiler {
+
+    enum class Kind { BRANCH, LEAF }
+
+    class Node internal constructor(val state: String, val name: String, val kind: Kind) {
+        internal val histogram = LatencyHistogram()
+    }
+
+    data class Row(
+        val state: String,
+        val name: String,
+        val kind: Kind,
+        val count: Long,
+        val meanNanos: Double,
+        val p50Nanos: Long,
+        val p99Nanos: Long,
+        val maxNanos: Long
+    ) {
+        val totalMillis: Double
+            get() = meanNanos * count / 1_000_000.0
+    }
+
+    private val nodes = CopyOnWriteArrayList<Node>()
+
+    @Volatile var enabled: Boolean = false
+
+    fun register(state: String, name: String, kind: Kind): Node =
+        nodes.firstOrNull { it.state == state && it.name == name && it.kind == kind }
+            ?: Node(state, name, kind).also { nodes += it }
+
+    fun reset() {
+        nodes.forEach { it.histogram.reset() }
+    }
+
+    /** Nodes that ran at least once, most total time first. */
+    fun rows(): List<Row> = nodes.asSequence()
+        .map { node ->
+            val histogram = node.histogram
+            Row(
+                state = node.state,
+                name = node.name,
+                kind = node.kind,
+                count = histogram.count(),
+                meanNanos = histogram.meanNanos(),
+                p50Nanos = histogram.percentileNanos(0.50),
+                p99Nanos = histogram.percentileNanos(0.99),
+                maxNanos = histogram.maxNanos()
+            )
+        }
+        .filter { it.count > 0L }
+        .sortedByDescending { it.totalMillis }
+        .toList()
+
+    /** Writes [rows] to [file] as CSV and returns it. */
+    fun exportCsv(file: File): File {
+        file.parentFile?.let { if (!it.exists()) it.mkdirs() }
+        file.bufferedWriter().use { out ->
+            out.write("state,node,kind,count,mean_ns,p50_ns,p99_ns,max_ns,total_ms\n")
+            for (row in rows()) {
+                out.write(
+                    String.format(
+                        Locale.US, "%s,%s,%s,%d,%.1f,%d,%d,%d,%.3f\n",
+                        row.state, row.name, row.kind, row.count, row.meanNanos, row.p50Nanos, row.p99Nanos, row.maxNanos, row.totalMillis
+                    )
+                )
+            }
+        }
+        return file
+    }
+}
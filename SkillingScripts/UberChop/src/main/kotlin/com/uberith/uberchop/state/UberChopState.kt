@@ -2,6 +2,9 @@ package com.uberith.uberchop.state
 
 import com.uberith.uberchop.UberChop
 import net.botwithus.kxapi.permissive.PermissiveDSL
+import net.botwithus.kxapi.permissive.dsl.BranchName
+import net.botwithus.kxapi.permissive.dsl.LeafName
+import net.botwithus.kxapi.permissive.dsl.StateBuilder
 
 abstract class UberChopState(
     script: UberChop,
@@ -9,5 +12,26 @@ abstract class UberChopState(
 ) : PermissiveDSL<UberChop>(script, name) {
 
     protected val bot: UberChop = script
-}
 
+    /** Compiled form of [define]; null until the permissive runtime has called create(). */
+    @Volatile var table: DecisionTable? = null
+        private set
+
+    protected abstract fun DecisionTreeBuilder.define()
+
+    // The permissive runtime sees a single always-true branch whose leaf runs the compiled table.
+    final override fun StateBuilder<UberChop>.create() {
+        val compiled = DecisionTreeBuilder().apply { define() }.compile()
+        compiled.attach(bot.nodeProfiler, name)
+        table = compiled
+        val dispatch = LeafName("${name}Decision")
+        branch(BranchName("${name}Table"), condition = { true }) {
+            onSuccess(dispatch)
+            onFailure(dispatch)
+        }
+        leaf(dispatch) {
+            compiled.run()
+        }
+        root(BranchName("${name}Table"))
+    }
+}
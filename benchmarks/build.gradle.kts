@@ -0,0 +1,104 @@
+import groovy.json.JsonSlurper
+import java.util.Locale
+
+plugins {
+    kotlin("jvm")
+    id("me.champeau.jmh")
+}
+
+group = "com.uberith.benchmarks"
+version = "1.0.0-SNAPSHOT"
+
+kotlin {
+    jvmToolchain(24)
+}
+
+// The benchmarks only have a jmh source set, so the root BotWithUs wiring does not apply here.
+// script-api and UberChop come in through the simulation module, which compiles them against
+// the client fakes; ConfigService is pulled straight from the root project's sources.
+sourceSets.named("jmh") {
+    java.srcDir("../src/main/java")
+    java.include("com/example/config/**", "com/uberith/**")
+}
+
+dependencies {
+    jmhImplementation(project(":InternalUtils:UberChopSim"))
+    jmhImplementation("com.google.code.gson:gson:2.10.1")
+}
+
+val jmhResults = layout.buildDirectory.file("results/jmh/results.json")
+val archiveDir = layout.projectDirectory.dir("results")
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    resultFormat.set("JSON")
+    resultsFile.set(jmhResults)
+    // -Pjmh.includes=Coordinates runs a subset.
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.set(listOf(it)) }
+}
+
+val gitRevision = providers.exec {
+    commandLine("git", "rev-parse", "--short", "HEAD")
+    isIgnoreExitValue = true
+}.standardOutput.asText.map { it.trim().ifEmpty { "unknown" } }
+
+// Results are kept per commit under benchmarks/results so two revisions can be compared with jmhDiff.
+val archiveJmhResults by tasks.registering(Copy::class) {
+    from(jmhResults)
+    into(archiveDir)
+    rename { "${gitRevision.get()}.json" }
+}
+
+tasks.named("jmh") {
+    finalizedBy(archiveJmhResults)
+}
+
+// ./gradlew :benchmarks:jmhDiff -Pbase=<rev> [-Phead=<rev>]; head defaults to the current commit.
+tasks.register("jmhDiff") {
+    group = "benchmark"
+    description = "Compares the archived JMH results of two commits."
+    val base = providers.gradleProperty("base")
+    val head = providers.gradleProperty("head").orElse(gitRevision)
+    val dir = archiveDir.asFile
+    doLast {
+        fun scores(rev: String): Map<String, Pair<Double, String>> {
+            val file = dir.resolve("$rev.json")
+            require(file.isFile) { "No archived results for $rev at $file" }
+            @Suppress("UNCHECKED_CAST")
+            val runs = JsonSlurper().parse(file) as List<Map<String, Any?>>
+            return runs.associate { run ->
+                val params = (run["params"] as? Map<*, *>)?.entries?.joinToString(",", "(", ")") { "${it.key}=${it.value}" } ?: ""
+                val metric = run["primaryMetric"] as Map<*, *>
+                "${run["benchmark"]}$params" to ((metric["score"] as Number).toDouble() to metric["scoreUnit"].toString())
+            }
+        }
+        val baseRev = base.orNull ?: error("Pass -Pbase=<rev>")
+        val before = scores(baseRev)
+        val after = scores(head.get())
+        println(String.format(Locale.US, "%-70s %14s %14s %9s", "benchmark", baseRev, head.get(), "change"))
+        for (name in (before.keys + after.keys).sorted()) {
+            val old = before[name]
+            val new = after[name]
+            val change = if (old != null && new != null && old.first != 0.0) {
+                String.format(Locale.US, "%+8.1f%%", (new.first - old.first) * 100.0 / old.first)
+            } else {
+                "-"
+            }
+            val unit = (new ?: old)!!.second
+            println(
+                String.format(
+                    Locale.US, "%-70s %14s %14s %9s  %s",
+                    name.removePrefix("com.uberith.benchmarks."),
+                    old?.let { String.format(Locale.US, "%.3f", it.first) } ?: "-",
+                    new?.let { String.format(Locale.US, "%.3f", it.first) } ?: "-",
+                    change, unit
+                )
+            )
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.uberith.benchmarks
+
+import com.example.config.Config
+import com.example.config.ConfigService
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.util.concurrent.TimeUnit
+
+/** Profile load and save through [ConfigService], both of which go to disk. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class ConfigServiceBenchmark {
+
+    private lateinit var home: TempHome
+    private val service = ConfigService()
+    private lateinit var config: Config
+
+    @Setup
+    fun setup() {
+        home = TempHome("config-bench")
+        config = service.load(PROFILE).withBankName("Bank chest").withFoodName("Shark")
+        service.save(PROFILE, config)
+    }
+
+    @TearDown
+    fun tearDown() {
+        home.close()
+    }
+
+    @Benchmark
+    fun load(): Config = service.load(PROFILE)
+
+    @Benchmark
+    fun save() {
+        service.save(PROFILE, config)
+    }
+
+    private companion object {
+        const val PROFILE = "bench"
+    }
+}
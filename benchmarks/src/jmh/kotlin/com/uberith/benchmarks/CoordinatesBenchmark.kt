@@ -0,0 +1,46 @@
+package com.uberith.benchmarks
+
+import com.uberith.api.game.world.Coordinates
+import net.botwithus.rs3.world.Coordinate
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/** Distance and radius checks made against the chop and bank tiles every tick. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class CoordinatesBenchmark {
+
+    private val center = Coordinate(2228, 3389, 0)
+    private lateinit var points: Array<Coordinate>
+    private var index = 0
+
+    @Setup
+    fun setup() {
+        val random = Random(7)
+        points = Array(POINTS) { Coordinate(center.x + random.nextInt(-40, 41), center.y + random.nextInt(-40, 41), 0) }
+    }
+
+    private fun next(): Coordinate {
+        val point = points[index]
+        index = (index + 1) and (POINTS - 1)
+        return point
+    }
+
+    @Benchmark
+    fun distance(): Double = Coordinates.distance(center, next())
+
+    @Benchmark
+    fun withinRadius(): Boolean = Coordinates.withinRadius(next(), center, 12)
+
+    private companion object {
+        const val POINTS = 1024
+    }
+}
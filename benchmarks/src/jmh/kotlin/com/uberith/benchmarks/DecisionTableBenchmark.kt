@@ -0,0 +1,76 @@
+package com.uberith.benchmarks
+
+import com.uberith.uberchop.UberChop
+import com.uberith.uberchop.state.BotState
+import com.uberith.uberchop.state.DecisionTable
+import com.uberith.uberchopsim.SimConfig
+import com.uberith.uberchopsim.SimWorld
+import com.uberith.uberchopsim.UberChopSimulation
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.util.concurrent.TimeUnit
+
+/**
+ * One leaf selection on the real Chopping and Banking trees: the compiled [DecisionTable] against
+ * a root-to-leaf walk of the same tree, as the permissive runtime ran it before the tables.
+ *
+ * UberChop runs in the simulation (nests, juju and wood box on) until the tick where [scenario]'s
+ * state would pick that leaf; the world is then held still and both selectors run on that tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class DecisionTableBenchmark {
+
+    @Param("Chopping/MaintainChopping", "Chopping/StartChopping", "Banking/StepToBank", "Banking/RunBankVisit")
+    lateinit var scenario: String
+
+    private lateinit var home: TempHome
+    private lateinit var bot: UberChop
+    private lateinit var table: DecisionTable
+
+    @Setup
+    fun setup() {
+        home = TempHome("decision-bench")
+        val (stateName, leaf) = scenario.split('/')
+        val state = BotState.entries.first { it.description == stateName }
+        val world = SimWorld(SimConfig())
+        bot = UberChopSimulation.launch(world, nests = true, juju = true, woodBox = true)
+        while (world.tick < MAX_TICKS) {
+            if (bot.onPreTick()) {
+                val current = BotState.entries.first { it.description == bot.currentStateName }
+                val currentTable = bot.decisionTable(current) ?: error("$current has no table")
+                if (current == state && currentTable.leafName(currentTable.select()) == leaf) {
+                    table = currentTable
+                    return
+                }
+                currentTable.run()
+            }
+            world.advance(1)
+        }
+        error("$scenario not reached within $MAX_TICKS ticks")
+    }
+
+    @TearDown
+    fun tearDown() {
+        bot.onDeactivation()
+        home.close()
+    }
+
+    @Benchmark
+    fun table(): Int = table.select()
+
+    @Benchmark
+    fun treeWalk(): Int = table.walk()
+
+    private companion object {
+        const val MAX_TICKS = 20_000L
+    }
+}
@@ -0,0 +1,79 @@
+package com.uberith.benchmarks
+
+import com.uberith.uberchop.FletchingRecipeTable
+import net.botwithus.kxapi.game.skilling.impl.fletching.FletchingProduct
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * Log -> fletching product resolution: the per-call scan over FletchingProduct.entries UberChop
+ * used to run, against FletchingRecipeTable's id lookup and its cached canProduce answer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class FletchingRecipeBenchmark {
+
+    private lateinit var table: FletchingRecipeTable
+    private var index = 0
+
+    @Setup
+    fun setup() {
+        table = FletchingRecipeTable()
+        NAMES.forEachIndexed { id, name -> table.forItem(id, name) }
+    }
+
+    private fun nextIndex(): Int {
+        val current = index
+        index = if (current + 1 == NAMES.size) 0 else current + 1
+        return current
+    }
+
+    @Benchmark
+    fun linearScan(): FletchingProduct? = linearResolve(NAMES[nextIndex()])
+
+    @Benchmark
+    fun tableById(): FletchingProduct? {
+        val id = nextIndex()
+        return table.forItem(id, NAMES[id])?.product
+    }
+
+    @Benchmark
+    fun buildAndResolve(): FletchingProduct? = FletchingRecipeTable().resolve(NAMES[nextIndex()])?.product
+
+    @Benchmark
+    fun canProduceCached(): Boolean {
+        val recipe = table.forItem(0, NAMES[0]) ?: return false
+        return table.canProduce(recipe, 99, 1L) { true }
+    }
+
+    private companion object {
+        val NAMES = arrayOf(
+            "Elder logs", "Magic logs", "Logs", "Yew logs", "Oak logs", "Maple logs",
+            "Willow logs", "Acadia logs", "Bird's nest", "Eternal magic logs"
+        )
+
+        // The lookup UberChop ran before the table: lower-case, then exact and partial passes over every product.
+        fun linearResolve(itemName: String): FletchingProduct? {
+            val normalized = itemName.lowercase()
+            if (!normalized.contains("log")) {
+                return null
+            }
+            if (normalized == "logs" || normalized == "normal logs") {
+                return FletchingProduct.ARROW_SHAFTS
+            }
+            FletchingProduct.entries.firstOrNull { it.primaryMaterial?.equals(itemName, ignoreCase = true) == true }
+                ?.let { return it }
+            return FletchingProduct.entries.firstOrNull { product ->
+                val primary = product.primaryMaterial?.lowercase() ?: return@firstOrNull false
+                normalized.contains(primary) || primary.contains(normalized)
+            }
+        }
+    }
+}
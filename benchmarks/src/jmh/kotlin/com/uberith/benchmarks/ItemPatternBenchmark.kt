@@ -0,0 +1,56 @@
+package com.uberith.benchmarks
+
+import com.uberith.uberchop.Equipment
+import com.uberith.uberchop.ItemClassifier
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * UberChop's item-name matching: the combined category pattern run on a name, the id-cached
+ * lookup the backpack scans use, and the wood box pattern passed to the Backpack helpers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class ItemPatternBenchmark {
+
+    private val classifier = ItemClassifier { it.endsWith(" logs", ignoreCase = true) }
+    private var index = 0
+
+    @Setup
+    fun setup() {
+        NAMES.forEachIndexed { id, name -> classifier.classify(id, name) }
+    }
+
+    private fun nextIndex(): Int {
+        val current = index
+        index = if (current + 1 == NAMES.size) 0 else current + 1
+        return current
+    }
+
+    @Benchmark
+    fun classifyName(): Int = classifier.classifyName(NAMES[nextIndex()])
+
+    @Benchmark
+    fun classifyCached(): Int {
+        val id = nextIndex()
+        return classifier.classify(id, NAMES[id])
+    }
+
+    @Benchmark
+    fun woodBoxPattern(): Boolean = Equipment.WOOD_BOX_PATTERN.matcher(NAMES[nextIndex()]).matches()
+
+    private companion object {
+        val NAMES = arrayOf(
+            "Elder logs", "Magic logs", "Bird's nest", "Bird’s nest", "Perfect juju woodcutting potion (4)",
+            "Juju woodcutting potion (2)", "Juju vial", "Elder wood box", "Crystal hatchet", "Coins",
+            "Dragon hatchet", "Elder shortbow (u)"
+        )
+    }
+}
@@ -0,0 +1,41 @@
+package com.uberith.benchmarks
+
+import com.uberith.api.script.RuntimeTracker
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/** Counter bumps from the tick thread and the snapshot the GUI takes every frame. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class RuntimeTrackerBenchmark {
+
+    private val tracker = RuntimeTracker()
+    private var index = 0
+
+    @Setup
+    fun setup() {
+        tracker.start()
+        KEYS.forEach { tracker.increment(it) }
+    }
+
+    @Benchmark
+    fun increment(): Long {
+        val key = KEYS[index]
+        index = (index + 1) % KEYS.size
+        return tracker.increment(key)
+    }
+
+    @Benchmark
+    fun snapshot(): RuntimeTracker.Snapshot = tracker.snapshot()
+
+    private companion object {
+        val KEYS = arrayOf("logs", "nests", "banked", "fletched", "bankTrips", "jujuSips", "hops", "breaks")
+    }
+}
@@ -0,0 +1,46 @@
+package com.uberith.benchmarks
+
+import com.google.gson.Gson
+import com.uberith.uberchop.config.CustomLocation
+import com.uberith.uberchop.config.QueueEntry
+import com.uberith.uberchop.config.Settings
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/** Settings to and from JSON, as UberChop saves and restores them, with a filled-in queue. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class SettingsGsonBenchmark {
+
+    private val gson = Gson()
+    private val settings = Settings()
+    private lateinit var json: String
+
+    @Setup
+    fun setup() {
+        settings.savedLocation = "Ithell"
+        settings.pickupNests = true
+        settings.customLocations["Ithell"] = CustomLocation(2228, 3389, 0, 2235, 3370, 0)
+        settings.depositKeep += listOf("Juju vial", "Bird's nest")
+        repeat(4) { i ->
+            settings.queueEntries += QueueEntry("Elder tree", 8, "Ithell", i % 3, 5_000, 5_000 - i * 1_000)
+        }
+        json = gson.toJson(settings)
+    }
+
+    @Benchmark
+    fun toJsonTree(): Any = gson.toJsonTree(settings)
+
+    @Benchmark
+    fun toJson(): String = gson.toJson(settings)
+
+    @Benchmark
+    fun fromJson(): Settings = gson.fromJson(json, Settings::class.java)
+}
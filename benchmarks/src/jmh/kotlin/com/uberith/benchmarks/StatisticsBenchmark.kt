@@ -0,0 +1,40 @@
+package com.uberith.benchmarks
+
+import com.uberith.api.utils.Statistics
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import java.util.concurrent.TimeUnit
+
+/** One saveStatistic call, which rewrites the whole stats file. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class StatisticsBenchmark {
+
+    private lateinit var home: TempHome
+    private lateinit var statistics: Statistics
+    private var value = 0L
+
+    @Setup
+    fun setup() {
+        home = TempHome("stats-bench")
+        statistics = Statistics("UberChopBench")
+        listOf("logs", "nests", "banked", "fletched", "runtime").forEach { statistics.saveStatistic(it, 0) }
+    }
+
+    @TearDown
+    fun tearDown() {
+        home.close()
+    }
+
+    @Benchmark
+    fun saveStatistic() {
+        statistics.saveStatistic("logs", ++value)
+    }
+}
@@ -0,0 +1,113 @@
+package com.uberith.benchmarks
+
+import com.uberith.uberchop.StatsCounters
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Group
+import org.openjdk.jmh.annotations.GroupThreads
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * GUI-side reads of the session/lifetime counters while the event and tick threads write them.
+ *
+ * Two writers add logs flat out and commit runtime and XP every 1,024 adds; two readers take
+ * the consistent view the GUI and the persistence thread take. "cas" is [StatsCounters]; "locked"
+ * is the same fields and arithmetic behind one monitor, the layout it replaced. SampleTime gives
+ * the read and write latency percentiles under that contention.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class StatsCountersBenchmark {
+
+    @Param("cas", "locked")
+    lateinit var layout: String
+
+    private lateinit var counters: Counters
+
+    @State(Scope.Thread)
+    open class WriterState {
+        var writes = 0L
+    }
+
+    @Setup
+    fun setup() {
+        counters = if (layout == "cas") CasCounters() else LockedCounters()
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    fun write(writer: WriterState) {
+        counters.addLog()
+        if (++writer.writes and 1023L == 0L) {
+            counters.commit(System.currentTimeMillis(), (writer.writes shr 10).toInt())
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    fun read(): Long {
+        val values = counters.read()
+        check(values[0] == values[1]) { "$layout read session ${values[0]} and lifetime ${values[1]} from different versions" }
+        return values[2]
+    }
+
+    private interface Counters {
+        fun addLog()
+        fun commit(now: Long, xp: Int)
+        /** Session logs, lifetime logs and lifetime XP, read together. */
+        fun read(): LongArray
+    }
+
+    private class CasCounters : Counters {
+        private val counters = StatsCounters().apply {
+            resetSession(startingXp = 0, startingLevel = 1)
+            startRuntime(System.currentTimeMillis())
+        }
+
+        override fun addLog() = counters.addLogs(1)
+
+        override fun commit(now: Long, xp: Int) = counters.commitSession(now, xp, 1)
+
+        override fun read(): LongArray = counters.snapshot().let { longArrayOf(it.sessionLogs, it.lifetimeLogs, it.lifetimeXp) }
+    }
+
+    private class LockedCounters : Counters {
+        private val lock = Any()
+        private val runtimeStartMs = System.currentTimeMillis()
+        private var sessionLogs = 0L
+        private var lifetimeLogs = 0L
+        private var runtimeCommittedMs = 0L
+        private var lifetimeRuntimeMs = 0L
+        private var xpCommitted = 0
+        private var lifetimeXp = 0L
+
+        override fun addLog() {
+            synchronized(lock) {
+                sessionLogs++
+                lifetimeLogs++
+            }
+        }
+
+        override fun commit(now: Long, xp: Int) {
+            synchronized(lock) {
+                val runtimeDelta = (now - runtimeStartMs - runtimeCommittedMs).coerceAtLeast(0L)
+                val xpDelta = (xp - xpCommitted).coerceAtLeast(0)
+                runtimeCommittedMs += runtimeDelta
+                lifetimeRuntimeMs += runtimeDelta
+                xpCommitted += xpDelta
+                lifetimeXp += xpDelta
+            }
+        }
+
+        override fun read(): LongArray = synchronized(lock) { longArrayOf(sessionLogs, lifetimeLogs, lifetimeXp) }
+    }
+}
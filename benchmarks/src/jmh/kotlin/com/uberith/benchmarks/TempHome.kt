@@ -0,0 +1,20 @@
+package com.uberith.benchmarks
+
+import java.io.File
+import java.nio.file.Files
+
+/** Points user.home at a scratch directory for benchmarks that write stats or config files. */
+internal class TempHome(prefix: String) {
+
+    private val previous: String? = System.getProperty("user.home")
+    private val dir: File = Files.createTempDirectory(prefix).toFile()
+
+    init {
+        System.setProperty("user.home", dir.path)
+    }
+
+    fun close() {
+        previous?.let { System.setProperty("user.home", it) }
+        dir.deleteRecursively()
+    }
+}
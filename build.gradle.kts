@@ -19,6 +19,8 @@ version = "1.0.0"
 
 allprojects {
     if (project.path == ":script-api") return@allprojects
+    // Headless harness: builds against its own client fakes instead of the BotWithUs artifacts.
+    if (project.path == ":InternalUtils:UberChopSim") return@allprojects
     val hasKotlin = file("src/main/kotlin").exists() || file("src/test/kotlin").exists()
     val hasJava = file("src/main/java").exists() || file("src/test/java").exists()
     val hasSources = hasKotlin || hasJava
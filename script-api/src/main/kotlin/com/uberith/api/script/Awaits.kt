@@ -0,0 +1,78 @@
+package com.uberith.api.script
+
+import net.botwithus.kxapi.game.inventory.Backpack
+import net.botwithus.kxapi.game.inventory.Bank
+import net.botwithus.rs3.entities.LocalPlayer
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Bounded waits for leaves that act on the client and then need to see the result.
+ *
+ * Each await re-checks its condition every tick through [delayUntil] (normally the script's own
+ * delayUntil), so the leaf resumes on the first tick the condition holds instead of sleeping a
+ * fixed number of ticks. Every await returns whether the condition held before [timeoutTicks] ran
+ * out; a timeout is not an error, the tree simply decides again on the next tick.
+ *
+ * Inventory changes are counted from the script's InventoryEvent handler via [onInventoryEvent].
+ * Take an [inventoryMark] before acting, since the events for an action can arrive before the
+ * leaf starts waiting.
+ */
+class Awaits(
+    private val delayUntil: (timeoutTicks: Int, condition: () -> Boolean) -> Unit,
+    private val isBackpackFull: () -> Boolean = { Backpack.isFull() },
+    private val isBankOpen: () -> Boolean = { Bank.isOpen() },
+    private val animationId: () -> Int = { LocalPlayer.self()?.animationId ?: -1 }
+) {
+
+    private val logger = LoggerFactory.getLogger(Awaits::class.java)
+    private val inventoryVersions = ConcurrentHashMap<Int, AtomicLong>()
+
+    /** Call from the script's InventoryEvent handler for every inventory, before any filtering. */
+    fun onInventoryEvent(inventoryId: Int) {
+        inventoryVersions.computeIfAbsent(inventoryId) { AtomicLong() }.incrementAndGet()
+    }
+
+    /** Number of events seen so far for [inventoryId]; pass it to [awaitInventoryChange]. */
+    fun inventoryMark(inventoryId: Int = BACKPACK_INVENTORY_ID): Long =
+        inventoryVersions[inventoryId]?.get() ?: 0L
+
+    /** Waits until [inventoryId] has changed since [mark] was taken. */
+    fun awaitInventoryChange(
+        mark: Long,
+        timeoutTicks: Int,
+        inventoryId: Int = BACKPACK_INVENTORY_ID
+    ): Boolean = awaitUntil(timeoutTicks, "inventory change") { inventoryMark(inventoryId) != mark }
+
+    fun awaitBackpackNotFull(timeoutTicks: Int): Boolean =
+        awaitUntil(timeoutTicks, "backpack space") { !isBackpackFull() }
+
+    /** Waits until the player is animating, or has stopped when [animating] is false. */
+    fun awaitAnimation(timeoutTicks: Int, animating: Boolean = true): Boolean =
+        awaitUntil(timeoutTicks, if (animating) "animation" else "animation end") { (animationId() != -1) == animating }
+
+    /** Waits until the bank interface is open, or closed when [open] is false. */
+    fun awaitBankOpen(timeoutTicks: Int, open: Boolean = true): Boolean =
+        awaitUntil(timeoutTicks, if (open) "bank open" else "bank closed") { isBankOpen() == open }
+
+    /** Waits until [condition] holds; [what] names it in the timeout log line. */
+    fun awaitUntil(timeoutTicks: Int, what: String = "condition", condition: () -> Boolean): Boolean {
+        val check = { runCatching(condition).getOrDefault(false) }
+        if (check()) {
+            return true
+        }
+        if (timeoutTicks > 0) {
+            delayUntil(timeoutTicks, check)
+        }
+        val met = check()
+        if (!met) {
+            logger.debug("[Awaits] {} not seen within {} tick(s)", what, timeoutTicks)
+        }
+        return met
+    }
+
+    companion object {
+        const val BACKPACK_INVENTORY_ID = 93
+    }
+}
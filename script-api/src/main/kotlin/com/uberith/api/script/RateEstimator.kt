@@ -0,0 +1,134 @@
+package com.uberith.api.script
+
+import com.uberith.api.utils.ScriptClock
+import kotlin.math.pow
+
+/**
+ * Sliding-window per-hour rate for a single counter, complementing [RuntimeTracker]'s since-start averages.
+ *
+ * Amounts are added to a ring of fixed-size buckets (one minute by default), so [record] is O(1)
+ * and nothing is allocated after construction. [perHour] sums the buckets inside a window of any
+ * length up to [capacityBuckets]; [ewmaPerHour] is an exponentially weighted average of completed
+ * buckets with the given half-life. Windows that started less than their length ago are scaled by
+ * the time actually covered, so early readings are not diluted.
+ */
+class RateEstimator(
+    private val capacityBuckets: Int = 60,
+    private val bucketMs: Long = 60_000L,
+    ewmaHalfLifeBuckets: Double = 5.0
+) {
+
+    init {
+        require(capacityBuckets > 0) { "capacityBuckets must be positive" }
+        require(bucketMs > 0L) { "bucketMs must be positive" }
+        require(ewmaHalfLifeBuckets > 0.0) { "ewmaHalfLifeBuckets must be positive" }
+    }
+
+    private val amounts = LongArray(capacityBuckets)
+    // Absolute bucket number each slot currently holds; -1 marks an unused slot.
+    private val stamps = LongArray(capacityBuckets) { -1L }
+    private val decay = 0.5.pow(1.0 / ewmaHalfLifeBuckets)
+
+    private var startedAt = -1L
+    private var ewma = 0.0
+    private var ewmaSeeded = false
+    private var ewmaFoldedThrough = -1L
+
+    @Synchronized
+    fun reset(nowMs: Long = ScriptClock.now()) {
+        amounts.fill(0L)
+        stamps.fill(-1L)
+        startedAt = nowMs
+        ewma = 0.0
+        ewmaSeeded = false
+        ewmaFoldedThrough = nowMs / bucketMs - 1
+    }
+
+    @Synchronized
+    fun record(amount: Long, nowMs: Long = ScriptClock.now()) {
+        if (amount <= 0L) {
+            return
+        }
+        if (startedAt < 0L) {
+            reset(nowMs)
+        }
+        val bucket = nowMs / bucketMs
+        foldEwma(bucket)
+        val slot = slotOf(bucket)
+        if (stamps[slot] != bucket) {
+            stamps[slot] = bucket
+            amounts[slot] = 0L
+        }
+        amounts[slot] += amount
+    }
+
+    /** Total recorded over the last [windowBuckets] buckets, including the current partial one. */
+    @Synchronized
+    fun total(windowBuckets: Int, nowMs: Long = ScriptClock.now()): Long {
+        val window = windowBuckets.coerceIn(1, capacityBuckets)
+        val current = nowMs / bucketMs
+        val oldest = current - window + 1
+        var sum = 0L
+        for (slot in 0 until capacityBuckets) {
+            val stamp = stamps[slot]
+            if (stamp in oldest..current) {
+                sum += amounts[slot]
+            }
+        }
+        return sum
+    }
+
+    /** Per-hour rate over the last [windowBuckets] buckets. */
+    @Synchronized
+    fun perHour(windowBuckets: Int, nowMs: Long = ScriptClock.now()): Int {
+        if (startedAt < 0L) {
+            return 0
+        }
+        val window = windowBuckets.coerceIn(1, capacityBuckets)
+        val windowStart = (nowMs / bucketMs - window + 1) * bucketMs
+        val covered = nowMs - maxOf(windowStart, startedAt)
+        if (covered <= 0L) {
+            return 0
+        }
+        return (total(window, nowMs).toDouble() * 3_600_000.0 / covered).toInt()
+    }
+
+    /** Exponentially weighted per-hour rate of completed buckets; the current bucket is not included yet. */
+    @Synchronized
+    fun ewmaPerHour(nowMs: Long = ScriptClock.now()): Int {
+        if (startedAt < 0L) {
+            return 0
+        }
+        foldEwma(nowMs / bucketMs)
+        return ewma.toInt()
+    }
+
+    private fun foldEwma(currentBucket: Long) {
+        val lastComplete = currentBucket - 1
+        if (lastComplete <= ewmaFoldedThrough) {
+            return
+        }
+        val gap = lastComplete - ewmaFoldedThrough
+        if (gap > capacityBuckets) {
+            // Buckets older than the ring were empty or overwritten; decay across them in one step.
+            ewma *= decay.pow((gap - capacityBuckets).toDouble())
+            ewmaFoldedThrough = lastComplete - capacityBuckets
+        }
+        var bucket = ewmaFoldedThrough + 1
+        while (bucket <= lastComplete) {
+            val slot = slotOf(bucket)
+            val amount = if (stamps[slot] == bucket) amounts[slot] else 0L
+            val bucketEnd = (bucket + 1) * bucketMs
+            // The bucket the estimator started in only covers part of its length.
+            val span = (bucketEnd - maxOf(bucket * bucketMs, startedAt)).coerceAtLeast(1L)
+            val rate = amount * 3_600_000.0 / span
+            // The first completed bucket seeds the average so it does not ramp up from zero.
+            ewma = if (ewmaSeeded) ewma * decay + rate * (1.0 - decay) else rate
+            ewmaSeeded = true
+            bucket++
+        }
+        ewmaFoldedThrough = lastComplete
+    }
+
+    private fun slotOf(bucket: Long): Int = Math.floorMod(bucket, capacityBuckets.toLong()).toInt()
+}
@@ -0,0 +1,119 @@
+package com.uberith.api.script
+
+import com.uberith.api.utils.ScriptClock
+import net.botwithus.rs3.vars.VarDomain
+import org.slf4j.LoggerFactory
+
+/**
+ * Reads a registered set of varbits in one batch per tick and caches the values.
+ *
+ * Scripts [watch] the varbits they care about and call [poll] once per tick. Each varbit is
+ * re-read at most every [intervalMs] (0 means every poll) and never before the time given to
+ * [deferUntil], so a known timer can park its reads until it is due to run out. Listeners fire on
+ * the polling thread when a value changes; [varbit] may be read from any thread.
+ */
+class VarWatch(
+    private val reader: (Int) -> Int? = VarDomain::getVarBitValue
+) {
+
+    fun interface Listener {
+        fun onChange(id: Int, previous: Int?, current: Int)
+    }
+
+    data class Metrics(
+        val watched: Int,
+        val polls: Long,
+        val reads: Long,
+        val deferredSkips: Long,
+        val changes: Long,
+        val failures: Long
+    )
+
+    private class Entry(var intervalMs: Long) {
+        @Volatile var value: Int? = null
+        var nextReadAt = 0L
+        val listeners = ArrayList<Listener>(1)
+    }
+
+    private class Change(val id: Int, val previous: Int?, val current: Int, val listeners: List<Listener>)
+
+    private companion object {
+        private val logger = LoggerFactory.getLogger(VarWatch::class.java)
+    }
+
+    private val entries = LinkedHashMap<Int, Entry>()
+
+    private var polls = 0L
+    private var reads = 0L
+    private var deferredSkips = 0L
+    private var changes = 0L
+    private var failures = 0L
+
+    /** Registers varbit [id]; re-registering adds the listener and keeps the shortest interval. */
+    @Synchronized
+    fun watch(id: Int, intervalMs: Long = 0L, listener: Listener? = null) {
+        val entry = entries.getOrPut(id) { Entry(intervalMs) }
+        entry.intervalMs = minOf(entry.intervalMs, intervalMs)
+        listener?.let { entry.listeners += it }
+    }
+
+    fun watchVarbits(ids: IntArray, intervalMs: Long = 0L, listener: Listener? = null) {
+        ids.forEach { watch(it, intervalMs, listener) }
+    }
+
+    /** Last value read for varbit [id], or null if it was never read (or every read failed). */
+    fun varbit(id: Int): Int? = synchronized(this) { entries[id] }?.value
+
+    /** Skips reads of [id] until [atMs]; earlier deferrals are replaced. */
+    @Synchronized
+    fun deferUntil(id: Int, atMs: Long) {
+        entries[id]?.nextReadAt = atMs
+    }
+
+    fun deferVarbits(ids: IntArray, atMs: Long) {
+        ids.forEach { deferUntil(it, atMs) }
+    }
+
+    /** Reads every due varbit and notifies listeners of changes; returns how many were read. */
+    fun poll(now: Long = ScriptClock.now()): Int {
+        val changed = ArrayList<Change>(0)
+        var readCount = 0
+        synchronized(this) {
+            polls++
+            for ((id, entry) in entries) {
+                if (now < entry.nextReadAt) {
+                    deferredSkips++
+                    continue
+                }
+                entry.nextReadAt = now + entry.intervalMs
+                val current = runCatching { reader(id) }
+                    .onFailure { error -> logger.debug("[VarWatch] varbit {} read failed: {}", id, error.message) }
+                    .getOrNull()
+                readCount++
+                if (current == null) {
+                    failures++
+                    continue
+                }
+                val previous = entry.value
+                if (previous != current) {
+                    entry.value = current
+                    changes++
+                    // Copied under the lock: watch() may add listeners while they are being notified.
+                    changed += Change(id, previous, current, entry.listeners.toList())
+                }
+            }
+            reads += readCount
+        }
+        // Outside the lock so listeners can defer or query the watch.
+        for (change in changed) {
+            change.listeners.forEach { listener ->
+                runCatching { listener.onChange(change.id, change.previous, change.current) }
+                    .onFailure { error -> logger.warn("[VarWatch] listener for varbit {} failed", change.id, error) }
+            }
+        }
+        return readCount
+    }
+
+    @Synchronized
+    fun metrics(): Metrics = Metrics(entries.size, polls, reads, deferredSkips, changes, failures)
+}
@@ -0,0 +1,146 @@
+package com.uberith.api.script
+
+import org.slf4j.LoggerFactory
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Coalescing write-behind wrapper around an expensive save callback.
+ *
+ * - Call [markDirty] wherever state changes; it only records a timestamp and never saves inline.
+ * - A background thread saves once the state has been quiet for [quietPeriodMs], or at the latest
+ *   [maxDelayMs] after it first became dirty, so bursts (a 28-slot deposit) collapse into one save.
+ * - Call [flush] on shutdown/deactivation to persist anything still pending on the calling thread.
+ */
+class WriteBehindSaver(
+    private val name: String,
+    private val quietPeriodMs: Long = 2_000L,
+    private val maxDelayMs: Long = 15_000L,
+    private val pollIntervalMs: Long = 250L,
+    private val save: () -> Unit
+) {
+
+    data class Metrics(
+        val saves: Long,
+        val requests: Long,
+        val failures: Long,
+        val lastLatencyMs: Double,
+        val averageLatencyMs: Double,
+        val maxLatencyMs: Double
+    ) {
+        /** Dirty marks absorbed by an already-pending save. */
+        val coalesced: Long
+            get() = (requests - saves - failures).coerceAtLeast(0L)
+    }
+
+    private val logger = LoggerFactory.getLogger(WriteBehindSaver::class.java)
+    private val saveLock = Any()
+    private val dirtySince = AtomicLong(0L)
+    @Volatile private var lastMarkAt = 0L
+    private val requests = AtomicLong(0L)
+    private val saves = AtomicLong(0L)
+    private val failures = AtomicLong(0L)
+    private val totalLatencyNanos = AtomicLong(0L)
+    @Volatile private var lastLatencyNanos = 0L
+    @Volatile private var maxLatencyNanos = 0L
+
+    private val lifecycleLock = Any()
+    private var executor: ScheduledExecutorService? = null
+
+    init {
+        start()
+    }
+
+    /** Starts the background thread again after [close]; a no-op while it is running. */
+    fun start() = synchronized(lifecycleLock) {
+        if (executor != null) {
+            return@synchronized
+        }
+        executor = Executors.newSingleThreadScheduledExecutor { runnable ->
+            Thread(runnable, "$name-write-behind").apply { isDaemon = true }
+        }.also {
+            it.scheduleWithFixedDelay({ pollSafely() }, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    val isDirty: Boolean
+        get() = dirtySince.get() != 0L
+
+    fun markDirty(nowMs: Long = System.currentTimeMillis()) {
+        requests.incrementAndGet()
+        lastMarkAt = nowMs
+        dirtySince.compareAndSet(0L, nowMs)
+    }
+
+    /** Saves immediately on the calling thread if anything is pending. */
+    fun flush() {
+        if (isDirty) {
+            runSave()
+        }
+    }
+
+    /** Flushes pending state and stops the background thread; [start] brings it back. */
+    fun close() {
+        flush()
+        synchronized(lifecycleLock) {
+            executor?.shutdown()
+            executor = null
+        }
+    }
+
+    fun metrics(): Metrics {
+        val completed = saves.get()
+        val average = if (completed == 0L) 0.0 else totalLatencyNanos.get().toDouble() / completed / 1_000_000.0
+        return Metrics(
+            saves = completed,
+            requests = requests.get(),
+            failures = failures.get(),
+            lastLatencyMs = lastLatencyNanos / 1_000_000.0,
+            averageLatencyMs = average,
+            maxLatencyMs = maxLatencyNanos / 1_000_000.0
+        )
+    }
+
+    private fun pollSafely() {
+        try {
+            val firstDirty = dirtySince.get()
+            if (firstDirty == 0L) {
+                return
+            }
+            val now = System.currentTimeMillis()
+            if (now - lastMarkAt >= quietPeriodMs || now - firstDirty >= maxDelayMs) {
+                runSave()
+            }
+        } catch (error: Throwable) {
+            logger.warn("[WriteBehindSaver] poll failed", error)
+        }
+    }
+
+    private fun runSave() {
+        synchronized(saveLock) {
+            // Clear before saving so marks that arrive mid-save schedule another pass.
+            if (dirtySince.getAndSet(0L) == 0L) {
+                return
+            }
+            val started = System.nanoTime()
+            try {
+                save()
+                val elapsed = System.nanoTime() - started
+                saves.incrementAndGet()
+                totalLatencyNanos.addAndGet(elapsed)
+                lastLatencyNanos = elapsed
+                if (elapsed > maxLatencyNanos) {
+                    maxLatencyNanos = elapsed
+                }
+            } catch (error: Throwable) {
+                failures.incrementAndGet()
+                val now = System.currentTimeMillis()
+                lastMarkAt = now
+                dirtySince.compareAndSet(0L, now)
+                logger.warn("[WriteBehindSaver] save failed; will retry", error)
+            }
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package com.uberith.api.utils
+
+import org.slf4j.LoggerFactory
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.nio.ByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.channels.FileLock
+import java.nio.channels.OverlappingFileLockException
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.zip.CRC32
+
+/**
+ * Append-only journal of integer-keyed long counters with snapshot compaction.
+ *
+ * [add] and [set] update the in-memory value and append a 2-4 byte record to a pending buffer.
+ * A background thread swaps the buffer out and writes it as one CRC-checked frame and fsyncs it
+ * every [flushIntervalMs], so a crash loses at most that much. File I/O runs under its own lock,
+ * so callers of [add] and [set] never wait on an fsync. Once the journal grows past
+ * [compactThresholdBytes] the current values are written to a snapshot file and the journal is
+ * truncated. Both files carry a generation number so a crash between the two steps can't replay
+ * old deltas on top of the newer snapshot. [open] replays snapshot + journal and ignores a torn tail.
+ * It also takes an exclusive lock on the journal file, so a second instance (e.g. a reloaded
+ * script whose predecessor was not closed) fails to open instead of compacting over it.
+ *
+ * Files live next to [Statistics] under ~/.BotWithUs/uberith/stats.
+ */
+class CounterJournal(
+    private val name: String,
+    directory: File = File(System.getProperty("user.home"), ".BotWithUs/uberith/stats"),
+    private val flushIntervalMs: Long = 1_000L,
+    private val compactThresholdBytes: Long = 64L * 1024L
+) {
+
+    data class Metrics(
+        val records: Long,
+        val frames: Long,
+        val bytesWritten: Long,
+        val compactions: Long,
+        val journalBytes: Long
+    )
+
+    private companion object {
+        const val JOURNAL_MAGIC = 0x55434a31 // "UCJ1"
+        const val SNAPSHOT_MAGIC = 0x55435331 // "UCS1"
+        const val FRAME_MARKER = 0xC5
+        const val OP_ADD = 0
+        const val OP_SET = 1
+        const val HEADER_BYTES = 12L
+    }
+
+    private val logger = LoggerFactory.getLogger(CounterJournal::class.java)
+    private val journalFile = File(directory, "$name.journal")
+    private val snapshotFile = File(directory, "$name.snapshot")
+    // [lock] guards values and the pending buffer; [ioLock] guards the files and is taken first.
+    private val lock = Any()
+    private val ioLock = Any()
+    private val values = HashMap<Int, Long>()
+    private var pending = ByteArrayOutputStream(256)
+    @Volatile private var channel: FileChannel? = null
+    private var fileLock: FileLock? = null
+    private var generation = 0L
+    // Start of a frame whose write failed and could not be cut off yet; -1 when the tail is clean.
+    private var repairAt = -1L
+    private var executor: ScheduledExecutorService? = null
+
+    private var records = 0L
+    private var frames = 0L
+    private var bytesWritten = 0L
+    private var compactions = 0L
+
+    init {
+        if (!directory.exists()) directory.mkdirs()
+    }
+
+    val isOpen: Boolean
+        get() = channel != null
+
+    /**
+     * Replays snapshot and journal, starts the flush thread and returns the recovered values.
+     * Throws [IllegalStateException] when another instance holds the journal.
+     */
+    fun open(): Map<Int, Long> = synchronized(ioLock) {
+        synchronized(lock) {
+            if (channel != null) {
+                return@synchronized HashMap(values)
+            }
+        }
+        val opened = FileChannel.open(
+            journalFile.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        )
+        val acquired = try {
+            opened.tryLock()
+        } catch (_: OverlappingFileLockException) {
+            null
+        }
+        if (acquired == null) {
+            runCatching { opened.close() }
+            throw IllegalStateException("journal $name is held by another instance")
+        }
+        synchronized(lock) {
+            values.clear()
+            pending.reset()
+            val snapshotGeneration = readSnapshot()
+            generation = snapshotGeneration
+            val validEnd = replayJournal(opened, snapshotGeneration)
+            if (validEnd < 0L) {
+                // Missing, stale or unreadable header: start a fresh journal for this generation.
+                opened.truncate(0L)
+                writeHeader(opened)
+            } else if (validEnd < opened.size()) {
+                logger.warn("[CounterJournal] {}: dropping {} bytes of torn journal tail", name, opened.size() - validEnd)
+                opened.truncate(validEnd)
+            }
+            opened.position(opened.size())
+            fileLock = acquired
+            channel = opened
+            repairAt = -1L
+            executor = Executors.newSingleThreadScheduledExecutor { runnable ->
+                Thread(runnable, "$name-journal").apply { isDaemon = true }
+            }.also { it.scheduleWithFixedDelay({ flushSafely() }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS) }
+            HashMap(values)
+        }
+    }
+
+    fun value(key: Int): Long? = synchronized(lock) { values[key] }
+
+    fun add(key: Int, delta: Long) {
+        if (delta == 0L) {
+            return
+        }
+        synchronized(lock) {
+            values[key] = (values[key] ?: 0L) + delta
+            append(key, OP_ADD, delta)
+        }
+    }
+
+    fun set(key: Int, value: Long) {
+        synchronized(lock) {
+            if (values[key] == value) {
+                return
+            }
+            values[key] = value
+            append(key, OP_SET, value)
+        }
+    }
+
+    /** Writes and fsyncs anything pending on the calling thread. */
+    fun flush() {
+        synchronized(ioLock) {
+            writePending()
+        }
+    }
+
+    /** Rewrites the snapshot from the current values and truncates the journal. */
+    fun compact() {
+        synchronized(ioLock) {
+            compactLocked()
+        }
+    }
+
+    /** Stops the flush thread, compacts, then releases the file lock and closes the journal. */
+    fun close() {
+        val running = synchronized(lock) { executor.also { executor = null } }
+        running?.shutdown()
+        runCatching { running?.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS) }
+        synchronized(ioLock) {
+            val current = channel ?: return
+            runCatching { compactLocked() }.onFailure { logger.warn("[CounterJournal] {}: compaction on close failed", name, it) }
+            runCatching { fileLock?.release() }
+            runCatching { current.close() }
+            fileLock = null
+            channel = null
+        }
+    }
+
+    fun metrics(): Metrics = synchronized(lock) {
+        Metrics(records, frames, bytesWritten, compactions, runCatching { channel?.size() ?: 0L }.getOrDefault(0L))
+    }
+
+    private fun append(key: Int, op: Int, value: Long) {
+        require(key >= 0) { "journal keys must be non-negative" }
+        writeVarLong(pending, (key.toLong() shl 1) or op.toLong())
+        writeVarLong(pending, (value shl 1) xor (value shr 63))
+        records++
+    }
+
+    private fun flushSafely() {
+        try {
+            synchronized(ioLock) {
+                writePending()
+                val current = channel ?: return
+                if (current.size() > compactThresholdBytes) {
+                    compactLocked()
+                }
+            }
+        } catch (error: Throwable) {
+            logger.warn("[CounterJournal] {}: flush failed", name, error)
+        }
+    }
+
+    /**
+     * Call with [ioLock] held; only the buffer swap takes [lock]. A failed write or fsync cuts the
+     * journal back to where the frame started and puts the payload back in front of [pending], so
+     * the deltas go out with the next frame and a torn frame can't hide the frames after it.
+     */
+    private fun writePending() {
+        val current = channel ?: return
+        if (repairAt >= 0L) {
+            current.truncate(repairAt)
+            current.position(repairAt)
+            repairAt = -1L
+        }
+        val payload = takePending() ?: return
+        val start = current.position()
+        val crc = CRC32().apply { update(payload) }
+        val frame = ByteArrayOutputStream(payload.size + 10)
+        frame.write(FRAME_MARKER)
+        writeVarLong(frame, payload.size.toLong())
+        DataOutputStream(frame).writeInt(crc.value.toInt())
+        frame.write(payload)
+        val buffer = ByteBuffer.wrap(frame.toByteArray())
+        try {
+            while (buffer.hasRemaining()) {
+                current.write(buffer)
+            }
+            current.force(false)
+        } catch (error: IOException) {
+            restorePending(payload)
+            runCatching {
+                current.truncate(start)
+                current.position(start)
+            }.onFailure { repairAt = start }
+            throw error
+        }
+        synchronized(lock) {
+            frames++
+            bytesWritten += frame.size()
+        }
+    }
+
+    private fun restorePending(payload: ByteArray) = synchronized(lock) {
+        // Records appended while the write was running come after the ones being put back.
+        val restored = ByteArrayOutputStream(payload.size + pending.size() + 256)
+        restored.write(payload)
+        pending.writeTo(restored)
+        pending = restored
+    }
+
+    private fun takePending(): ByteArray? = synchronized(lock) {
+        if (pending.size() == 0) {
+            return@synchronized null
+        }
+        val taken = pending
+        pending = ByteArrayOutputStream(256)
+        taken.toByteArray()
+    }
+
+    /** Call with [ioLock] held. */
+    private fun compactLocked() {
+        val current = channel ?: return
+        // Values and the pending buffer are taken together: the snapshot already holds those records.
+        val snapshot = synchronized(lock) {
+            pending = ByteArrayOutputStream(256)
+            HashMap(values)
+        }
+        repairAt = -1L
+        val nextGeneration = generation + 1
+        val temp = File(snapshotFile.parentFile, "${snapshotFile.name}.tmp")
+        FileOutputStream(temp).use { file ->
+            val out = DataOutputStream(file.buffered())
+            val body = ByteArrayOutputStream()
+            val bodyOut = DataOutputStream(body)
+            bodyOut.writeLong(nextGeneration)
+            bodyOut.writeInt(snapshot.size)
+            for ((key, value) in snapshot) {
+                bodyOut.writeInt(key)
+                bodyOut.writeLong(value)
+            }
+            val bytes = body.toByteArray()
+            out.writeInt(SNAPSHOT_MAGIC)
+            out.writeInt(bytes.size)
+            out.write(bytes)
+            out.writeInt(CRC32().apply { update(bytes) }.value.toInt())
+            out.flush()
+            file.fd.sync()
+        }
+        Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        generation = nextGeneration
+        current.truncate(0L)
+        writeHeader(current)
+        current.force(true)
+        synchronized(lock) { compactions++ }
+    }
+
+    private fun writeHeader(target: FileChannel) {
+        val header = ByteBuffer.allocate(HEADER_BYTES.toInt())
+        header.putInt(JOURNAL_MAGIC).putLong(generation).flip()
+        target.position(0L)
+        while (header.hasRemaining()) {
+            target.write(header)
+        }
+    }
+
+    /** Loads the snapshot into [values] and returns its generation (0 when there is none). */
+    private fun readSnapshot(): Long {
+        if (!snapshotFile.exists()) {
+            return 0L
+        }
+        return runCatching {
+            DataInputStream(snapshotFile.inputStream().buffered()).use { input ->
+                check(input.readInt() == SNAPSHOT_MAGIC) { "bad snapshot magic" }
+                val bytes = ByteArray(input.readInt())
+                input.readFully(bytes)
+                check(input.readInt() == CRC32().apply { update(bytes) }.value.toInt()) { "snapshot checksum mismatch" }
+                val body = DataInputStream(bytes.inputStream())
+                val snapshotGeneration = body.readLong()
+                repeat(body.readInt()) {
+                    values[body.readInt()] = body.readLong()
+                }
+                snapshotGeneration
+            }
+        }.getOrElse { error ->
+            logger.warn("[CounterJournal] {}: snapshot unreadable, ignoring it", name, error)
+            values.clear()
+            0L
+        }
+    }
+
+    /** Applies valid frames and returns the offset after the last one, or -1 if the journal must be reset. */
+    private fun replayJournal(source: FileChannel, snapshotGeneration: Long): Long {
+        if (source.size() < HEADER_BYTES) {
+            return -1L
+        }
+        // Not closed: closing the stream would close the channel we keep appending to.
+        val input = DataInputStream(Channels.newInputStream(source.position(0L)).buffered())
+        if (input.readInt() != JOURNAL_MAGIC || input.readLong() != snapshotGeneration) {
+            // Written before the current snapshot was taken; its deltas are already included.
+            return -1L
+        }
+        var validEnd = HEADER_BYTES
+        while (true) {
+            try {
+                val marker = input.read()
+                if (marker == -1 || marker != FRAME_MARKER) {
+                    break
+                }
+                val lengthStart = validEnd + 1
+                val length = readVarLong(input)
+                if (length < 0L || length > Int.MAX_VALUE) {
+                    break
+                }
+                val expectedCrc = input.readInt()
+                val payload = ByteArray(length.toInt())
+                input.readFully(payload)
+                if (CRC32().apply { update(payload) }.value.toInt() != expectedCrc) {
+                    break
+                }
+                applyPayload(payload)
+                validEnd = lengthStart + varLongSize(length) + 4 + length
+            } catch (_: EOFException) {
+                break
+            }
+        }
+        return validEnd
+    }
+
+    private fun applyPayload(payload: ByteArray) {
+        val input = payload.inputStream()
+        while (input.available() > 0) {
+            val tag = readVarLong(input)
+            val raw = readVarLong(input)
+            val value = (raw ushr 1) xor -(raw and 1L)
+            val key = (tag ushr 1).toInt()
+            if ((tag and 1L).toInt() == OP_SET) {
+                values[key] = value
+            } else {
+                values[key] = (values[key] ?: 0L) + value
+            }
+        }
+    }
+
+    private fun writeVarLong(out: OutputStream, value: Long) {
+        var remaining = value
+        while (remaining and 0x7FL.inv() != 0L) {
+            out.write(((remaining and 0x7FL) or 0x80L).toInt())
+            remaining = remaining ushr 7
+        }
+        out.write(remaining.toInt())
+    }
+
+    private fun readVarLong(input: InputStream): Long {
+        var result = 0L
+        var shift = 0
+        while (shift < 64) {
+            val b = input.read()
+            if (b == -1) {
+                throw EOFException()
+            }
+            result = result or ((b and 0x7F).toLong() shl shift)
+            if (b and 0x80 == 0) {
+                return result
+            }
+            shift += 7
+        }
+        throw EOFException()
+    }
+
+    private fun varLongSize(value: Long): Int {
+        var size = 1
+        var remaining = value ushr 7
+        while (remaining != 0L) {
+            size++
+            remaining = remaining ushr 7
+        }
+        return size
+    }
+}
@@ -0,0 +1,165 @@
+package com.uberith.api.utils
+
+/**
+ * Open-addressing int -> int hash map without boxing.
+ *
+ * Intended for small lookup tables keyed by item or object ids that are read every tick.
+ * [Int.MIN_VALUE] is reserved as the empty-slot marker and cannot be used as a key.
+ * Not thread-safe; callers guard shared instances themselves.
+ */
+class IntIntMap(initialCapacity: Int = 16) {
+
+    private companion object {
+        const val FREE = Int.MIN_VALUE
+        const val MAX_LOAD = 0.6
+    }
+
+    private var keys: IntArray
+    private var values: IntArray
+    private var mask: Int
+    var size: Int = 0
+        private set
+
+    init {
+        val capacity = tableSizeFor((initialCapacity / MAX_LOAD).toInt() + 1)
+        keys = IntArray(capacity) { FREE }
+        values = IntArray(capacity)
+        mask = capacity - 1
+    }
+
+    fun isEmpty(): Boolean = size == 0
+
+    fun containsKey(key: Int): Boolean = indexOf(key) >= 0
+
+    fun get(key: Int, defaultValue: Int = 0): Int {
+        val index = indexOf(key)
+        return if (index >= 0) values[index] else defaultValue
+    }
+
+    fun put(key: Int, value: Int) {
+        require(key != FREE) { "Int.MIN_VALUE is reserved" }
+        var index = mix(key) and mask
+        while (true) {
+            val existing = keys[index]
+            if (existing == FREE) {
+                keys[index] = key
+                values[index] = value
+                size++
+                if (size > keys.size * MAX_LOAD) {
+                    rehash(keys.size shl 1)
+                }
+                return
+            }
+            if (existing == key) {
+                values[index] = value
+                return
+            }
+            index = (index + 1) and mask
+        }
+    }
+
+    /** Adds [delta] to the value stored for [key] (starting from 0) and returns the new value. */
+    fun addTo(key: Int, delta: Int): Int {
+        val index = indexOf(key)
+        if (index >= 0) {
+            values[index] += delta
+            return values[index]
+        }
+        put(key, delta)
+        return delta
+    }
+
+    fun remove(key: Int): Boolean {
+        var index = indexOf(key)
+        if (index < 0) {
+            return false
+        }
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        var next = (index + 1) and mask
+        while (keys[next] != FREE) {
+            val home = mix(keys[next]) and mask
+            val shouldMove = if (index <= next) home <= index || home > next else home <= index && home > next
+            if (shouldMove) {
+                keys[index] = keys[next]
+                values[index] = values[next]
+                index = next
+            }
+            next = (next + 1) and mask
+        }
+        keys[index] = FREE
+        values[index] = 0
+        size--
+        return true
+    }
+
+    fun clear() {
+        if (size == 0) {
+            return
+        }
+        keys.fill(FREE)
+        values.fill(0)
+        size = 0
+    }
+
+    inline fun forEach(action: (key: Int, value: Int) -> Unit) {
+        for (i in 0 until capacity()) {
+            val key = keyAt(i)
+            if (key != Int.MIN_VALUE) {
+                action(key, valueAt(i))
+            }
+        }
+    }
+
+    @PublishedApi
+    internal fun capacity(): Int = keys.size
+
+    @PublishedApi
+    internal fun keyAt(index: Int): Int = keys[index]
+
+    @PublishedApi
+    internal fun valueAt(index: Int): Int = values[index]
+
+    private fun indexOf(key: Int): Int {
+        if (key == FREE) {
+            return -1
+        }
+        var index = mix(key) and mask
+        while (true) {
+            val existing = keys[index]
+            if (existing == FREE) {
+                return -1
+            }
+            if (existing == key) {
+                return index
+            }
+            index = (index + 1) and mask
+        }
+    }
+
+    private fun rehash(newCapacity: Int) {
+        val oldKeys = keys
+        val oldValues = values
+        keys = IntArray(newCapacity) { FREE }
+        values = IntArray(newCapacity)
+        mask = newCapacity - 1
+        size = 0
+        for (i in oldKeys.indices) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i])
+            }
+        }
+    }
+
+    private fun mix(key: Int): Int {
+        val h = key * -0x61c88647
+        return h xor (h ushr 16)
+    }
+
+    private fun tableSizeFor(capacity: Int): Int {
+        var size = 4
+        while (size < capacity) {
+            size = size shl 1
+        }
+        return size
+    }
+}
@@ -0,0 +1,88 @@
+package com.uberith.api.utils
+
+/**
+ * Fixed-memory log-linear histogram of nanosecond latencies (HDR-style).
+ *
+ * Each power of two is split into [SUB_BUCKETS] linear buckets, so any recorded value is
+ * reported within 1/[SUB_BUCKETS] (about 6%) of itself. Values up to 2^[MAX_EXPONENT] ns (about
+ * 18 minutes) are tracked exactly that way; anything larger lands in the last bucket. The whole
+ * histogram is one array of ~600 longs allocated up front.
+ */
+class LatencyHistogram {
+
+    private companion object {
+        const val SUB_BITS = 4
+        const val SUB_BUCKETS = 1 shl SUB_BITS
+        const val MAX_EXPONENT = 40
+        const val BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS
+
+        fun indexOf(value: Long): Int {
+            if (value < SUB_BUCKETS) {
+                return value.coerceAtLeast(0L).toInt()
+            }
+            val exponent = 63 - java.lang.Long.numberOfLeadingZeros(value)
+            val shift = exponent - SUB_BITS
+            val index = (shift + 1) * SUB_BUCKETS + ((value ushr shift) and (SUB_BUCKETS - 1).toLong()).toInt()
+            return index.coerceAtMost(BUCKETS - 1)
+        }
+
+        /** Midpoint of the values that map to [index]. */
+        fun valueOf(index: Int): Long {
+            if (index < SUB_BUCKETS) {
+                return index.toLong()
+            }
+            val shift = index / SUB_BUCKETS - 1
+            val lower = (SUB_BUCKETS + index % SUB_BUCKETS).toLong() shl shift
+            return lower + ((1L shl shift) shr 1)
+        }
+    }
+
+    private val counts = LongArray(BUCKETS)
+    private var count = 0L
+    private var total = 0L
+    private var max = 0L
+
+    @Synchronized
+    fun record(nanos: Long) {
+        counts[indexOf(nanos)]++
+        count++
+        total += nanos
+        if (nanos > max) {
+            max = nanos
+        }
+    }
+
+    @Synchronized
+    fun reset() {
+        counts.fill(0L)
+        count = 0L
+        total = 0L
+        max = 0L
+    }
+
+    @Synchronized
+    fun count(): Long = count
+
+    @Synchronized
+    fun meanNanos(): Double = if (count == 0L) 0.0 else total.toDouble() / count
+
+    @Synchronized
+    fun maxNanos(): Long = max
+
+    /** Approximate value at [quantile] (0.0-1.0); 0 when nothing was recorded. */
+    @Synchronized
+    fun percentileNanos(quantile: Double): Long {
+        if (count == 0L) {
+            return 0L
+        }
+        val rank = (quantile.coerceIn(0.0, 1.0) * (count - 1)).toLong() + 1
+        var seen = 0L
+        for (index in counts.indices) {
+            seen += counts[index]
+            if (seen >= rank) {
+                return minOf(valueOf(index), max)
+            }
+        }
+        return max
+    }
+}
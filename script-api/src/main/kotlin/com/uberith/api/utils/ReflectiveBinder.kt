@@ -0,0 +1,169 @@
+package com.uberith.api.utils
+
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.ref.WeakReference
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Resolves reflective method lookups once and caches them as [MethodHandle]s.
+ *
+ * Each (class, candidate names, parameter types) is looked up the first time it is requested;
+ * later calls reuse the bound handle. Lookups that find nothing are cached as well, so optional
+ * APIs that are missing in the running client cost a map read instead of a method scan.
+ * Bindings are held per class through a [ClassValue] and [classForName] keeps only weak references,
+ * so neither pins script class loaders.
+ */
+object ReflectiveBinder {
+
+    data class Metrics(
+        val hits: Long,
+        val misses: Long,
+        val negativeHits: Long,
+        val failures: Long
+    )
+
+    /**
+     * A resolved method; [invoke] drops the receiver for static methods.
+     *
+     * The handle is adapted once to take every argument, receiver first, in one `Object[]` and
+     * return `Object`, so each call is a single [MethodHandle.invokeExact] with no per-call adaptation.
+     */
+    class Binding internal constructor(val method: Method, handle: MethodHandle) {
+        val isStatic: Boolean = Modifier.isStatic(method.modifiers)
+
+        private val spread: MethodHandle = handle.asType(handle.type().generic())
+            .asSpreader(Array<Any?>::class.java, handle.type().parameterCount())
+
+        fun invoke(receiver: Any?, vararg args: Any?): Any? {
+            if (isStatic) {
+                val all: Array<Any?> = arrayOf(*args)
+                return spread.invokeExact(all) as Any?
+            }
+            requireNotNull(receiver) { "${method.name} requires a receiver" }
+            val all = arrayOfNulls<Any?>(args.size + 1)
+            all[0] = receiver
+            System.arraycopy(args, 0, all, 1, args.size)
+            return spread.invokeExact(all) as Any?
+        }
+    }
+
+    private data class Signature(
+        val names: List<String>,
+        val ignoreCase: Boolean,
+        val parameterTypes: List<Class<*>>,
+        val assignableParameters: Boolean
+    )
+
+    // Stands in for "no such method" so failed lookups can be cached in a ConcurrentHashMap.
+    private val MISSING = Any()
+
+    private val bindings = object : ClassValue<ConcurrentHashMap<Signature, Any>>() {
+        override fun computeValue(type: Class<*>): ConcurrentHashMap<Signature, Any> = ConcurrentHashMap()
+    }
+    // Values are MISSING or a WeakReference to the class; a cleared reference is looked up again.
+    private val classes = ConcurrentHashMap<String, Any>()
+
+    private val hits = AtomicLong()
+    private val misses = AtomicLong()
+    private val negativeHits = AtomicLong()
+    private val failures = AtomicLong()
+
+    /**
+     * Finds a public method on [owner] named one of [names] (tried in order) taking [parameterTypes].
+     * With [assignableParameters] a declared parameter may be a supertype of the requested one.
+     */
+    fun method(
+        owner: Class<*>,
+        names: List<String>,
+        parameterTypes: List<Class<*>> = emptyList(),
+        ignoreCase: Boolean = false,
+        assignableParameters: Boolean = false
+    ): Binding? {
+        val cache = bindings.get(owner)
+        val signature = Signature(names, ignoreCase, parameterTypes, assignableParameters)
+        val cached = cache[signature]
+        if (cached != null) {
+            if (cached === MISSING) {
+                negativeHits.incrementAndGet()
+                return null
+            }
+            hits.incrementAndGet()
+            return cached as Binding
+        }
+        misses.incrementAndGet()
+        val resolved = resolve(owner, signature)
+        cache.putIfAbsent(signature, resolved ?: MISSING)
+        return resolved
+    }
+
+    fun method(owner: Class<*>, name: String, vararg parameterTypes: Class<*>): Binding? =
+        method(owner, listOf(name), parameterTypes.toList())
+
+    /** Cached [Class.forName]; classes that are not on the class path are remembered as missing. */
+    fun classForName(name: String): Class<*>? {
+        val cached = classes[name]
+        if (cached === MISSING) {
+            negativeHits.incrementAndGet()
+            return null
+        }
+        val live = (cached as WeakReference<*>?)?.get()
+        if (live != null) {
+            hits.incrementAndGet()
+            return live as Class<*>
+        }
+        misses.incrementAndGet()
+        val resolved = runCatching { Class.forName(name) }.getOrNull()
+        classes[name] = resolved?.let { WeakReference(it) } ?: MISSING
+        return resolved
+    }
+
+    fun metrics(): Metrics = Metrics(hits.get(), misses.get(), negativeHits.get(), failures.get())
+
+    private fun resolve(owner: Class<*>, signature: Signature): Binding? {
+        val methods = owner.methods
+        for (name in signature.names) {
+            val method = methods.firstOrNull { candidate ->
+                candidate.name.equals(name, signature.ignoreCase) && parametersMatch(candidate, signature)
+            } ?: continue
+            val handle = unreflect(method)
+            if (handle != null) {
+                return Binding(method, handle)
+            }
+        }
+        return null
+    }
+
+    private fun parametersMatch(method: Method, signature: Signature): Boolean {
+        val declared = method.parameterTypes
+        if (declared.size != signature.parameterTypes.size) {
+            return false
+        }
+        for (index in declared.indices) {
+            val requested = signature.parameterTypes[index]
+            val matches = if (signature.assignableParameters) {
+                declared[index].isAssignableFrom(requested)
+            } else {
+                declared[index] == requested
+            }
+            if (!matches) {
+                return false
+            }
+        }
+        return true
+    }
+
+    private fun unreflect(method: Method): MethodHandle? {
+        runCatching { return MethodHandles.publicLookup().unreflect(method) }
+        // Public methods on non-public implementation classes need the accessible flag.
+        return runCatching {
+            method.isAccessible = true
+            MethodHandles.lookup().unreflect(method)
+        }.onFailure {
+            failures.incrementAndGet()
+        }.getOrNull()
+    }
+}
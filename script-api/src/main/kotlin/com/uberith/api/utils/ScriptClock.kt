@@ -0,0 +1,14 @@
+package com.uberith.api.utils
+
+/**
+ * Millisecond clock behind script cooldowns, timers and rate windows.
+ *
+ * Reads [System.currentTimeMillis] in the client. The headless simulation installs its own
+ * [source] so those cooldowns expire in simulated game time rather than wall time.
+ */
+object ScriptClock {
+
+    @Volatile var source: () -> Long = System::currentTimeMillis
+
+    fun now(): Long = source()
+}
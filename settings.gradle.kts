@@ -11,6 +11,7 @@ pluginManagement {
         kotlin("multiplatform") version "2.2.0"
         kotlin("plugin.serialization") version "2.2.0"
         id("com.android.library") version "8.7.2"
+        id("me.champeau.jmh") version "0.7.3"
     }
 }
 
@@ -71,6 +72,10 @@ include(":SkillingScripts:UberChop")
 include(":InternalUtils")
 include(":InternalUtils:UberTestingUtil")
 include(":InternalUtils:SuspendableDemo")
+include(":InternalUtils:UberChopSim")
 include(":SkillingScripts:UberChopOld")
 
+// JMH benchmarks for script-api and UberChop hot paths
+include(":benchmarks")
+
 